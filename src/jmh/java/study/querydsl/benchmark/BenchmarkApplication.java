@@ -0,0 +1,56 @@
+package study.querydsl.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.repository.MemberBulkLoader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * 벤치마크에서 사용할 스프링 컨텍스트를 메모리 H2 DB로 띄우고 회원 데이터를 넣어줌
+ * 벤치마크(trial)마다 새로운 DB를 사용하도록 DB 이름을 매번 다르게 만듦
+ */
+public final class BenchmarkApplication {
+
+    public static final int TEAM_COUNT = 10;
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(int memberCount, String... properties) {
+        return start(WebApplicationType.NONE, memberCount, properties);
+    }
+
+    //임의의 포트로 웹 서버까지 띄움, 포트는 port(context)로 확인
+    public static ConfigurableApplicationContext startWeb(int memberCount, String... properties) {
+        return start(WebApplicationType.SERVLET, memberCount, Stream.concat(Stream.of("server.port=0"), Stream.of(properties))
+                .toArray(String[]::new));
+    }
+
+    public static int port(ConfigurableApplicationContext context) {
+        return Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType webApplicationType, int memberCount, String... properties) {
+        List<String> args = new ArrayList<>();
+        args.add("--spring.profiles.active=bench");
+        args.add("--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        Stream.of(properties).map(property -> "--" + property).forEach(args::add);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(webApplicationType)
+                .run(args.toArray(String[]::new));
+
+        List<String> teamNames = new ArrayList<>();
+        for (int i = 0; i < TEAM_COUNT; i++) {
+            teamNames.add("team" + i);
+        }
+        context.getBean(MemberBulkLoader.class).load(teamNames, memberCount);
+        return context;
+    }
+}
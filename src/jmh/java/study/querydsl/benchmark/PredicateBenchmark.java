@@ -0,0 +1,119 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repository.MemberSearchPredicates;
+import study.querydsl.repository.MemberSearchShape;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 같은 검색 조건을 BooleanBuilder(searchByBuilder)와 Where절 파라미터(MemberSearchPredicates)로 만들 때의 비용 비교
+ * DB 없이 쿼리 조립(construct)과 JPQL 직렬화(serialize)만 측정하고, shape는 MemberSearchShape의 16가지 조건 조합
+ * 두 방식의 차이만 보기 위해 조건식(leaf)은 같은 것을 사용함
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PredicateBenchmark {
+
+    @Param({"0", "1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12", "13", "14", "15"})
+    int shape;
+
+    MemberSearchCondition condition;
+
+    @Setup
+    public void setUp() {
+        condition = new MemberSearchCondition();
+        if (MemberSearchShape.has(shape, MemberSearchShape.USERNAME)) {
+            condition.setUsername("member1");
+        }
+        if (MemberSearchShape.has(shape, MemberSearchShape.TEAM_NAME)) {
+            condition.setTeamName("teamA");
+        }
+        if (MemberSearchShape.has(shape, MemberSearchShape.AGE_GOE)) {
+            condition.setAgeGoe(10);
+        }
+        if (MemberSearchShape.has(shape, MemberSearchShape.AGE_LOE)) {
+            condition.setAgeLoe(40);
+        }
+    }
+
+    @Benchmark
+    public QueryMetadata booleanBuilderConstruct() {
+        return booleanBuilderQuery().getMetadata();
+    }
+
+    @Benchmark
+    public QueryMetadata whereParameterConstruct() {
+        return whereParameterQuery().getMetadata();
+    }
+
+    @Benchmark
+    public String booleanBuilderSerialize() {
+        return serialize(booleanBuilderQuery());
+    }
+
+    @Benchmark
+    public String whereParameterSerialize() {
+        return serialize(whereParameterQuery());
+    }
+
+    private JPAQuery<MemberTeamDto> booleanBuilderQuery() {
+        BooleanBuilder builder = new BooleanBuilder();
+        if (hasText(condition.getUsername())) {
+            builder.and(MemberSearchPredicates.usernameMatches(condition.getUsername(), MemberSearchPredicates.usernameMatch(condition)));
+        }
+        if (hasText(condition.getTeamName())) {
+            builder.and(MemberSearchPredicates.teamNameEq(condition.getTeamName()));
+        }
+        if (condition.getAgeGoe() != null) {
+            builder.and(MemberSearchPredicates.ageGoe(condition.getAgeGoe()));
+        }
+        if (condition.getAgeLoe() != null) {
+            builder.and(MemberSearchPredicates.ageLoe(condition.getAgeLoe()));
+        }
+        return baseQuery().where(builder);
+    }
+
+    private JPAQuery<MemberTeamDto> whereParameterQuery() {
+        return baseQuery().where(MemberSearchPredicates.of(condition));
+    }
+
+    private JPAQuery<MemberTeamDto> baseQuery() {
+        return new JPAQuery<Void>()
+                .select(new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name))
+                .from(member)
+                .leftJoin(member.team, team);
+    }
+
+    private String serialize(JPAQuery<MemberTeamDto> query) {
+        JPQLSerializer serializer = new JPQLSerializer(HQLTemplates.DEFAULT);
+        serializer.serialize(query.getMetadata(), false, null);
+        return serializer.toString();
+    }
+}
@@ -0,0 +1,111 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.QMemberDto;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * QuerydslIntermediateTest 에서 다룬 프로젝션 방식별로 N건을 조회해서 DTO로 만드는 비용을 비교
+ * 쿼리 실행부터 DTO 생성까지(end-to-end) 측정하며, gc 프로파일러의 gc.alloc.rate.norm 이 bytes/op
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionBenchmark {
+
+    @Param({"100", "10000"})
+    int rows;
+
+    ConfigurableApplicationContext context;
+    EntityManagerFactory entityManagerFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(rows);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberDto> bean() {
+        return query(queryFactory -> queryFactory
+                .select(Projections.bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .fetch());
+    }
+
+    @Benchmark
+    public List<MemberDto> fields() {
+        return query(queryFactory -> queryFactory
+                .select(Projections.fields(MemberDto.class, member.username, member.age))
+                .from(member)
+                .fetch());
+    }
+
+    @Benchmark
+    public List<MemberDto> constructor() {
+        return query(queryFactory -> queryFactory
+                .select(Projections.constructor(MemberDto.class, member.username, member.age))
+                .from(member)
+                .fetch());
+    }
+
+    @Benchmark
+    public List<MemberDto> queryProjection() {
+        return query(queryFactory -> queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .fetch());
+    }
+
+    //Tuple은 DTO로 바꾸는 비용까지 포함해야 다른 방식과 비교할 수 있음
+    @Benchmark
+    public List<MemberDto> tuple() {
+        return query(queryFactory -> {
+            List<Tuple> tuples = queryFactory
+                    .select(member.username, member.age)
+                    .from(member)
+                    .fetch();
+            return tuples.stream()
+                    .map(tuple -> new MemberDto(tuple.get(member.username), tuple.get(member.age)))
+                    .toList();
+        });
+    }
+
+    private <T> T query(Function<JPAQueryFactory, T> query) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return query.apply(new JPAQueryFactory(entityManager));
+        } finally {
+            entityManager.close();
+        }
+    }
+}
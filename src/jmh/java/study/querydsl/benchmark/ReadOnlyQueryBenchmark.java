@@ -0,0 +1,91 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.EntityQueryMode;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 쓰기 트랜잭션 안에서 회원 전체(500k)를 MANAGED / READ_ONLY 로 조회할 때 영속성 컨텍스트가 차지하는 메모리 비교
+ * 조회한 엔티티를 잡고 있는 상태에서 GC 후 사용 중인 힙을 heapRetainedMb 로 기록함 (READ_ONLY는 dirty checking 스냅샷이 없음)
+ * 새로 시작한 readOnly 트랜잭션은 스프링이 세션을 읽기 전용으로 만들어서 차이가 없으므로, 서비스의 쓰기 트랜잭션에서 호출하는 경우를 측정
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ReadOnlyQueryBenchmark {
+
+    @Param({"500000"})
+    int memberCount;
+
+    @Param({"MANAGED", "READ_ONLY"})
+    EntityQueryMode mode;
+
+    ConfigurableApplicationContext context;
+    MemberJpaRepository memberJpaRepository;
+    TransactionTemplate transaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(memberCount);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class HeapCounters {
+        public long heapRetainedMb;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            heapRetainedMb = 0;
+        }
+    }
+
+    @Benchmark
+    public int findAll(HeapCounters counters) {
+        Integer loaded = transaction.execute(status -> {
+            List<Member> members = memberJpaRepository.findAll(mode);
+            counters.heapRetainedMb = retainedHeapMb(); //영속성 컨텍스트가 아직 열려있는 상태
+            status.setRollbackOnly();
+            return members.size();
+        });
+        return loaded == null ? 0 : loaded;
+    }
+
+    private static long retainedHeapMb() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        memory.gc();
+        return memory.getHeapMemoryUsage().getUsed() / (1024 * 1024);
+    }
+}
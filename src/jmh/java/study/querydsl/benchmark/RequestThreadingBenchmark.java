@@ -0,0 +1,81 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /v1/members 부하 테스트 - 플랫폼 스레드(톰캣 스레드 풀)와 가상 스레드 모드의 처리량과 p99 비교
+ * 두 모드 모두 톰캣 스레드 수를 같게 두고(가상 스레드 모드에서는 사용되지 않음) 동시 요청 수를 스레드 수보다 많게 보냄
+ * SampleTime 결과의 p0.99가 p99 응답 시간, Throughput 결과가 초당 처리 요청 수
+ * 가상 스레드는 JDK 21 이상에서 실행해야 적용됨 (./gradlew jmh -Pjmh.includes=RequestThreadingBenchmark)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(400)
+@Fork(1)
+public class RequestThreadingBenchmark {
+
+    @Param({"false", "true"})
+    boolean virtualThreads;
+
+    @Param({"50"})
+    int tomcatMaxThreads;
+
+    ConfigurableApplicationContext context;
+    HttpClient httpClient;
+    HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.startWeb(10_000,
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "server.tomcat.threads.max=" + tomcatMaxThreads,
+                "server.tomcat.accept-count=1000",
+                "spring.datasource.hikari.maximum-pool-size=10");
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + BenchmarkApplication.port(context) + "/v1/members?teamName=team1&ageGoe=50"))
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int searchMembers() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("status=" + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
@@ -0,0 +1,74 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.ScrollIterator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MemberJpaRepository.scrollAll 로 회원 전체를 forward-only 커서로 읽을 때 fetchSize 별 처리량 비교 (H2)
+ * 회원 수가 같으므로 ops/s 가 클수록 행당 비용이 작음, gc 프로파일러로 bytes/op 도 비교할 수 있음
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScrollFetchSizeBenchmark {
+
+    @Param({"100000"})
+    int memberCount;
+
+    @Param({"10", "100", "1000", "10000"})
+    int fetchSize;
+
+    ConfigurableApplicationContext context;
+    MemberJpaRepository memberJpaRepository;
+    TransactionTemplate readOnlyTransaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(memberCount);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Long scrollAll(Blackhole blackhole) {
+        return readOnlyTransaction.execute(status -> {
+            long count = 0;
+            try (ScrollIterator<Member> members = memberJpaRepository.scrollAll(fetchSize)) {
+                while (members.hasNext()) {
+                    blackhole.consume(members.next());
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+}
@@ -0,0 +1,71 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberSqlSearch;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 searchMemberTeam 조건을 JPA(Hibernate)와 querydsl-sql(JDBC)로 조회할 때 비교
+ * team1 회원 중 나이가 20~30 인 회원을 조회하므로 결과 건수는 memberCount에 비례함
+ * 결과 캐시를 거치지 않도록 리포지토리가 아니라 조회 경로를 직접 호출함, gc 프로파일러로 bytes/op 도 비교할 수 있음
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBackendBenchmark {
+
+    @Param({"1000", "100000"})
+    int memberCount;
+
+    ConfigurableApplicationContext context;
+    MemberJpaRepository memberJpaRepository;
+    MemberSqlSearch memberSqlSearch;
+    MemberSearchCondition condition;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(memberCount);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        memberSqlSearch = context.getBean(MemberSqlSearch.class);
+        condition = new MemberSearchCondition();
+        condition.setTeamName("team1");
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(30);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> jpa() {
+        return memberJpaRepository.searchByWhereParameter(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> sql() {
+        return memberSqlSearch.searchMemberTeam(condition);
+    }
+}
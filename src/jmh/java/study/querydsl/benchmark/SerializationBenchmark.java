@@ -0,0 +1,100 @@
+package study.querydsl.benchmark;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import study.querydsl.controller.MemberJsonWriter;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * MemberTeamDto 목록을 JSON 배열로 쓰는 비용 비교 (DB 없이 직렬화만 측정, gc 프로파일러의 gc.alloc.rate.norm 이 bytes/op)
+ * - objectMapper : 기존 /v1/members 경로, 목록 전체를 리플렉션 기반 BeanSerializer로 직렬화
+ * - writer       : MemberJsonWriter로 한 행씩 바로 씀 (/v1/members/stream)
+ * gzip=true 이면 server.compression 을 켰을 때처럼 gzip 스트림에 씀
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"100", "10000"})
+    int rows;
+
+    @Param({"false", "true"})
+    boolean gzip;
+
+    ObjectMapper objectMapper;
+    List<MemberTeamDto> members;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper(); //MemberJsonWriter 가 등록되지 않은 기본 직렬화
+        members = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            members.add(new MemberTeamDto((long) i, "member" + i, i % 100, (long) (i % 10), "team" + (i % 10)));
+        }
+    }
+
+    @Benchmark
+    public long objectMapper() throws IOException {
+        CountingOutputStream counter = new CountingOutputStream();
+        try (OutputStream out = wrap(counter)) {
+            objectMapper.writeValue(out, members);
+        }
+        return counter.count;
+    }
+
+    @Benchmark
+    public long writer() throws IOException {
+        CountingOutputStream counter = new CountingOutputStream();
+        try (OutputStream out = wrap(counter);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            for (MemberTeamDto member : members) {
+                MemberJsonWriter.write(generator, member);
+            }
+            generator.writeEndArray();
+        }
+        return counter.count;
+    }
+
+    private OutputStream wrap(OutputStream out) throws IOException {
+        return gzip ? new GZIPOutputStream(out, 8192) : out;
+    }
+
+    //응답 스트림 대신 쓴 바이트 수만 세는 출력
+    static class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
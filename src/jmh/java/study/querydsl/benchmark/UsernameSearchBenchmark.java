@@ -0,0 +1,95 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.dto.UsernameMatch;
+import study.querydsl.repository.MemberSearchPredicates;
+import study.querydsl.repository.MemberUsernameIndex;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 회원명 PREFIX/CONTAINS 검색을 메모리 인덱스 + in 절(MemberUsernameIndex)과 like 만으로 조회할 때 비교
+ * 회원명은 "member" + i 이므로 PREFIX member12345 는 11건, CONTAINS 23456 은 수십 건이 일치함
+ * 결과 캐시를 거치지 않도록 리포지토리가 아니라 조회 경로를 직접 호출함
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class UsernameSearchBenchmark {
+
+    @Param({"1000000"})
+    int memberCount;
+
+    @Param({"PREFIX", "CONTAINS"})
+    UsernameMatch match;
+
+    ConfigurableApplicationContext context;
+    EntityManagerFactory entityManagerFactory;
+    MemberUsernameIndex usernameIndex;
+    MemberSearchCondition condition;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(memberCount);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        usernameIndex = context.getBean(MemberUsernameIndex.class);
+        condition = new MemberSearchCondition();
+        condition.setUsernameMatch(match);
+        condition.setUsername(match == UsernameMatch.PREFIX ? "member12345" : "23456");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> index() {
+        return usernameIndex.searchMemberTeam(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> like() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return new JPAQueryFactory(entityManager)
+                    .select(new QMemberTeamDto(member.id,
+                            member.username,
+                            member.age,
+                            team.id,
+                            team.name))
+                    .from(member)
+                    .leftJoin(member.team, team)
+                    .where(MemberSearchPredicates.of(condition))
+                    .fetch();
+        } finally {
+            entityManager.close();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package study.querydsl.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 커넥션 수만큼의 permit을 가진 세마포어로 동시에 DB를 사용하는 요청 수를 제한하는 DataSource
+ * 가상 스레드는 요청마다 만들어지므로 스레드 풀 크기로는 DB 사용량이 제한되지 않음
+ * 커넥션을 얻기 전에 permit을 받고 close()할 때 돌려줌, 대기 순서는 공정(FIFO)하게 처리
+ *
+ * permit 수는 Hikari maximumPoolSize 와 같게 두므로(VirtualThreadConfig) 동시 사용 수의 상한은 풀과 같음
+ * 세마포어가 하는 일은 대기 방식의 차이로, Hikari는 반납된 커넥션을 먼저 요청한 스레드에 넘긴다는 보장이 없어서(ConcurrentBag)
+ * 수천 개의 가상 스레드가 기다리면 일부 요청이 timeout 까지 계속 밀릴 수 있음, 세마포어는 FIFO 순서로 넘겨줌
+ * permit을 받은 뒤에는 풀에 남은 커넥션이 있으므로 Hikari에서 다시 오래 기다리지 않음
+ * 실행 중에 풀 크기를 바꾸면(HikariConfigMXBean) permit 수는 따라가지 않음
+ */
+public class ConnectionPermitDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+
+    public ConnectionPermitDataSource(DataSource targetDataSource, int permits, Duration acquireTimeout) {
+        super(targetDataSource);
+        this.permits = new Semaphore(permits, true);
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releaseOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releaseOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("DB 커넥션 permit을 " + acquireTimeout.toMillis() + "ms 안에 얻지 못했습니다.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("DB 커넥션 permit 대기 중 인터럽트", e);
+        }
+    }
+
+    private Connection releaseOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    //equals/hashCode를 실제 커넥션에 넘기면 프록시와 실제 커넥션이 같은 것으로 취급되므로 프록시 기준으로 처리
+                    if (method.getName().equals("equals")) {
+                        return proxy == args[0];
+                    }
+                    if (method.getName().equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    }
+                    if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        } finally {
+                            permits.release();
+                        }
+                    }
+                    if (method.getName().equals("unwrap") && ((Class<?>) args[0]).isInstance(connection)) {
+                        return connection;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
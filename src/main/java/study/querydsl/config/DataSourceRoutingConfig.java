@@ -0,0 +1,71 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * app.datasource.replica.url 이 있으면 읽기/쓰기 DataSource를 분리
+ * spring.datasource 는 primary(쓰기), app.datasource.replica 는 replica(읽기 전용 트랜잭션)
+ * 로컬에서는 H2 두 개로 확인할 수 있음 (application-replica.yml)
+ *
+ * DataSource를 직접 만들면 스프링 부트가 spring.datasource.hikari.* 를 바인딩하지 않으므로 @ConfigurationProperties로 직접 바인딩
+ * replica 풀 설정은 app.datasource.replica.hikari.* 로 따로 줌
+ */
+@Configuration
+@ConditionalOnProperty("app.datasource.replica.url")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${app.datasource.replica.url}") String url,
+                                              @Value("${app.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${app.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               @Value("${app.datasource.replica.health-query:select 1}") String healthQuery,
+                                               @Value("${app.datasource.replica.lag-query:}") String lagQuery,
+                                               @Value("${app.datasource.replica.max-lag:5s}") Duration maxLag) {
+        return new ReplicaLagMonitor(replicaDataSource, healthQuery, lagQuery, maxLag);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, replicaLagMonitor));
+    }
+}
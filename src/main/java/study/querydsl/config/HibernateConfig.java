@@ -0,0 +1,17 @@
+package study.querydsl.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HibernateConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(ObjectProvider<SqlStatementListener> listeners) {
+        SqlStatementInspector inspector = new SqlStatementInspector(listeners);
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+}
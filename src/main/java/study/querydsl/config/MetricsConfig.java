@@ -0,0 +1,74 @@
+package study.querydsl.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.querydsl.repository.MemberSearchQueryCache;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberSearchResultCache;
+
+import java.util.List;
+
+@Configuration
+public class MetricsConfig {
+
+    //JPQL 캐시 적중률: 적중하면 Querydsl 직렬화를 건너뜀
+    @Bean
+    public MeterBinder memberSearchQueryCacheMetrics(MemberSearchQueryCache cache) {
+        return registry -> {
+            FunctionCounter.builder("member.search.query.cache", cache, MemberSearchQueryCache::getHitCount)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("member.search.query.cache", cache, MemberSearchQueryCache::getMissCount)
+                    .tag("result", "miss")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder memberSearchResultCacheMetrics(MemberSearchResultCache cache) {
+        return registry -> {
+            FunctionCounter.builder("member.search.result.cache", cache, MemberSearchResultCache::getHitCount)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("member.search.result.cache", cache, MemberSearchResultCache::getMissCount)
+                    .tag("result", "miss")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * 2차 캐시 영역별 적중률(hit / (hit + miss)), 조회가 없으면 NaN
+     * 요청/적중 건수 자체는 hibernate-micrometer의 hibernate.second.level.cache.requests 로 수집됨
+     */
+    @Bean
+    public MeterBinder secondLevelCacheHitRatioMetrics(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> {
+            for (String region : List.of(Team.class.getName(), Team.class.getName() + ".members")) {
+                Gauge.builder("hibernate.second.level.cache.hit.ratio", statistics,
+                                s -> hitRatio(s.getDomainDataRegionStatistics(region)))
+                        .tag("region", region)
+                        .register(registry);
+            }
+            Gauge.builder("hibernate.second.level.cache.hit.ratio", statistics,
+                            s -> hitRatio(s.getQueryRegionStatistics("default-query-results-region")))
+                    .tag("region", "default-query-results-region")
+                    .register(registry);
+        };
+    }
+
+    private static double hitRatio(CacheRegionStatistics region) {
+        if (region == null) {
+            return Double.NaN;
+        }
+        long requests = region.getHitCount() + region.getMissCount();
+        return requests == 0 ? Double.NaN : (double) region.getHitCount() / requests;
+    }
+}
@@ -0,0 +1,105 @@
+package study.querydsl.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * HTTP 요청(또는 트랜잭션) 단위로 실행된 조회 SQL을 세서 N+1 문제를 찾아냄
+ * 1. 같은 모양의 조회 SQL이 repeat-threshold 번 이상 반복되면 N+1로 판단 (ex. 지연 로딩된 member.getTeam().getName())
+ * 2. 조회 SQL 수가 max-statements를 넘으면 예산 초과
+ * mode가 FAIL이면 예외를 던지고(테스트), WARN이면 SQL을 실행한 위치의 스택 트레이스와 함께 경고 로그만 남김(운영)
+ * 하이버네이트는 값을 바인딩 파라미터로 보내므로 SQL 문자열이 같으면 같은 모양의 쿼리
+ */
+@Slf4j
+@Component
+public class NPlusOneDetector implements SqlStatementListener {
+
+    public enum Mode {
+        WARN, FAIL
+    }
+
+    private final ThreadLocal<Scope> currentScope = new ThreadLocal<>();
+    private final int maxStatements;
+    private final int repeatThreshold;
+    private final Mode mode;
+
+    public NPlusOneDetector(@Value("${app.statement-budget.max-statements:50}") int maxStatements,
+                            @Value("${app.statement-budget.repeat-threshold:10}") int repeatThreshold,
+                            @Value("${app.statement-budget.mode:WARN}") Mode mode) {
+        this.maxStatements = maxStatements;
+        this.repeatThreshold = repeatThreshold;
+        this.mode = mode;
+    }
+
+    /**
+     * 새로운 측정 구간을 시작, 이미 구간이 열려있으면(요청 안의 트랜잭션 등) 바깥 구간에 합쳐지고 false를 반환
+     */
+    public boolean begin(String name) {
+        if (currentScope.get() != null) {
+            return false;
+        }
+        currentScope.set(new Scope(name));
+        return true;
+    }
+
+    public void end() {
+        currentScope.remove();
+    }
+
+    @Override
+    public void onStatement(SqlStatement statement) {
+        if (!statement.isSelect() || statement.isSequenceCall()) {
+            return;
+        }
+        Scope scope = scope();
+        if (scope == null) {
+            return;
+        }
+
+        int repeated = scope.countBySql.merge(statement.getSql(), 1, Integer::sum);
+        if (repeated == repeatThreshold) {
+            violation(String.format("N+1 의심: 같은 조회 SQL이 %d번 실행됨 [%s] sql=%s", repeated, scope.name, statement.getSql()));
+        }
+        if (++scope.total == maxStatements + 1) {
+            violation(String.format("조회 SQL 예산 초과: %d개 초과 [%s]", maxStatements, scope.name));
+        }
+    }
+
+    private Scope scope() {
+        Scope scope = currentScope.get();
+        if (scope == null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            begin("transaction " + TransactionSynchronizationManager.getCurrentTransactionName());
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    end();
+                }
+            });
+            scope = currentScope.get();
+        }
+        return scope;
+    }
+
+    private void violation(String message) {
+        if (mode == Mode.FAIL) {
+            throw new StatementBudgetExceededException(message);
+        }
+        log.warn(message, new Throwable("SQL을 실행한 위치"));
+    }
+
+    private static class Scope {
+        private final String name;
+        private final Map<String, Integer> countBySql = new HashMap<>();
+        private int total;
+
+        private Scope(String name) {
+            this.name = name;
+        }
+    }
+}
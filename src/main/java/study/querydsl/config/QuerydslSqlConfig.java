@@ -0,0 +1,25 @@
+package study.querydsl.config;
+
+import com.querydsl.sql.H2Templates;
+import com.querydsl.sql.SQLQueryFactory;
+import com.querydsl.sql.spring.SpringConnectionProvider;
+import com.querydsl.sql.spring.SpringExceptionTranslator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * querydsl-sql 로 JDBC를 직접 사용하는 조회용 SQLQueryFactory (app.search.backend=sql)
+ * SpringConnectionProvider는 JPA 트랜잭션이 잡은 커넥션을 그대로 사용하므로 트랜잭션/replica 라우팅이 JPA와 같음
+ */
+@Configuration
+public class QuerydslSqlConfig {
+
+    @Bean
+    public SQLQueryFactory sqlQueryFactory(DataSource dataSource) {
+        com.querydsl.sql.Configuration configuration = new com.querydsl.sql.Configuration(H2Templates.builder().build());
+        configuration.setExceptionTranslator(new SpringExceptionTranslator());
+        return new SQLQueryFactory(configuration, new SpringConnectionProvider(dataSource));
+    }
+}
@@ -0,0 +1,69 @@
+package study.querydsl.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * 읽기 전용 복제본(replica)을 사용해도 되는지 주기적으로 확인
+ * 1. health-query 가 실패하면(연결 불가, 스키마 없음 등) 사용하지 않음
+ * 2. lag-query 가 있으면 복제 지연(초)을 조회해서 max-lag 보다 크면 사용하지 않음
+ * 사용할 수 없는 동안 읽기 요청은 primary로 보냄
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final DataSource replica;
+    private final String healthQuery;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private volatile boolean available;
+
+    public ReplicaLagMonitor(DataSource replica, String healthQuery, String lagQuery, Duration maxLag) {
+        this.replica = replica;
+        this.healthQuery = healthQuery;
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    //replica가 사용 중이면 읽은 데이터가 최대 이만큼 primary보다 늦을 수 있음
+    public Duration getMaxLag() {
+        return maxLag;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.check-interval-ms:5000}")
+    public void check() {
+        boolean result;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(healthQuery);
+            result = lagQuery == null || lagQuery.isBlank() || lagOf(statement).compareTo(maxLag) <= 0;
+        } catch (SQLException e) {
+            log.debug("replica health check failed", e);
+            result = false;
+        }
+        if (available != result) {
+            log.warn("replica {}", result ? "available, routing read-only transactions to replica" : "unavailable, routing reads to primary");
+        }
+        available = result;
+    }
+
+    private Duration lagOf(Statement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (!resultSet.next()) {
+                return Duration.ZERO;
+            }
+            return Duration.ofMillis((long) (resultSet.getDouble(1) * 1000));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package study.querydsl.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * @Transactional(readOnly = true) 안의 조회는 replica로, 나머지는 primary로 보냄
+ * 트랜잭션 시작 시점에는 readOnly 여부가 아직 설정되지 않으므로 반드시 LazyConnectionDataSourceProxy로 감싸서 사용
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor replicaLagMonitor) {
+        this.replicaLagMonitor = replicaLagMonitor;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && replicaLagMonitor.isAvailable()) {
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+}
@@ -0,0 +1,122 @@
+package study.querydsl.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.CursorPage;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.BulkOperationResult;
+import study.querydsl.repository.MemberSearchShape;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.stream.BaseStream;
+
+/**
+ * MemberJpaRepository, MemberRepositoryImpl 의 메서드별 쿼리 메트릭
+ * - repository.query : 실행 시간(히스토그램 포함)
+ * - repository.query.rows : 반환한 행 수 (반환 타입별로 구함, rowsOf 참고)
+ * - repository.query.statements : 실행된 JDBC 문장 수 (searchQueryExecutor 스레드에서 실행된 문장 포함)
+ * 태그는 method, shape(어떤 검색 조건이 있었는지), outcome(success/error)
+ */
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final SqlStatementCounter statementCounter;
+
+    public RepositoryMetricsAspect(MeterRegistry meterRegistry, SqlStatementCounter statementCounter) {
+        this.meterRegistry = meterRegistry;
+        this.statementCounter = statementCounter;
+    }
+
+    @Around("execution(public * study.querydsl.repository.MemberJpaRepository.*(..))"
+            + " || execution(public * study.querydsl.repository.MemberRepositoryImpl.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        String shape = shapeOf(joinPoint.getArgs());
+        long statementsBefore = statementCounter.current();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        Object result = null;
+        try {
+            result = joinPoint.proceed();
+            outcome = "success";
+            return result;
+        } finally {
+            Tags tags = Tags.of("method", method, "shape", shape, "outcome", outcome);
+            sample.stop(Timer.builder("repository.query")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            DistributionSummary.builder("repository.query.statements")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(statementCounter.current() - statementsBefore);
+            long rows = "success".equals(outcome) ? rowsOf(joinPoint, result) : -1;
+            if (rows >= 0) {
+                DistributionSummary.builder("repository.query.rows")
+                        .tags(tags)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                        .record(rows);
+            }
+        }
+    }
+
+    private String shapeOf(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof MemberSearchCondition condition) {
+                return MemberSearchShape.name(MemberSearchShape.of(condition));
+            }
+        }
+        return "n/a";
+    }
+
+    /**
+     * @return 조회/변경한 행 수, 알 수 없으면 -1 (기록하지 않음)
+     * - 스트리밍 메서드(streamAll 등)는 처리한 행 수(long), 벌크 수정/삭제는 BulkOperationResult.rows
+     * - scroll 처럼 반환한 뒤에 읽는 결과(Iterator, Stream)와 void 메서드는 반환 시점에 행 수를 알 수 없음
+     */
+    private long rowsOf(ProceedingJoinPoint joinPoint, Object result) {
+        Class<?> returnType = ((MethodSignature) joinPoint.getSignature()).getReturnType();
+        if (returnType == void.class) {
+            return -1;
+        }
+        if (result == null) {
+            return 0; //단건 조회 결과 없음
+        }
+        if (result instanceof Iterator<?> || result instanceof BaseStream<?, ?>) {
+            return -1;
+        }
+        if (result instanceof BulkOperationResult bulk) {
+            return bulk.rows();
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof CursorPage<?> page) {
+            return page.getContent().size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Long count) {
+            return count;
+        }
+        //그 외에는 엔티티/DTO 한 건
+        return 1;
+    }
+}
@@ -0,0 +1,13 @@
+package study.querydsl.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * @Scheduled 작업(TeamStatisticsStore.reconcile, ReplicaLagMonitor 등)을 실행
+ * 설정 조건에 따라 빠지는 config에 두면 해당 조건이 아닐 때 모든 스케줄 작업이 멈추므로 따로 둠
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,29 @@
+package study.querydsl.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * MemberRepositoryImpl.searchPageConcurrently 에서 컨텐츠/count 쿼리를 실행하는 스레드 풀
+ * 스레드마다 커넥션을 하나씩 잡으므로 pool-size는 커넥션 풀 크기보다 작게 유지
+ * 작업 스레드에서 실행된 SQL도 요청한 스레드의 repository.query.statements 에 포함되도록 SqlStatementCounter를 넘김
+ */
+@Configuration
+public class SearchExecutorConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor searchQueryExecutor(@Value("${app.search.concurrent.pool-size:8}") int poolSize,
+                                                      @Value("${app.search.concurrent.queue-capacity:100}") int queueCapacity,
+                                                      SqlStatementCounter statementCounter) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("search-query-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setTaskDecorator(statementCounter);
+        return executor;
+    }
+}
@@ -0,0 +1,66 @@
+package study.querydsl.config;
+
+import java.util.Locale;
+
+/**
+ * 하이버네이트가 JDBC로 보내기 직전의 SQL 한 문장
+ */
+public class SqlStatement {
+
+    private final String sql;
+    private final String normalized;
+
+    public SqlStatement(String sql) {
+        this.sql = sql;
+        this.normalized = sql.strip().toLowerCase(Locale.ROOT);
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public boolean isSelect() {
+        return normalized.startsWith("select") || normalized.startsWith("with");
+    }
+
+    //시퀀스 조회(select next value for ...)도 select 문이지만 데이터 조회는 아님
+    public boolean isSequenceCall() {
+        return normalized.contains("next value for") || normalized.contains("nextval(");
+    }
+
+    /**
+     * insert/update/delete 문이 변경하는 테이블 이름(소문자), 조회문이면 null
+     */
+    public String getMutatedTable() {
+        if (normalized.startsWith("insert into ")) {
+            return tableName("insert into ".length());
+        }
+        if (normalized.startsWith("update ")) {
+            return tableName("update ".length());
+        }
+        if (normalized.startsWith("delete from ")) {
+            return tableName("delete from ".length());
+        }
+        if (normalized.startsWith("merge into ")) {
+            return tableName("merge into ".length());
+        }
+        return null;
+    }
+
+    private String tableName(int start) {
+        int end = start;
+        while (end < normalized.length()) {
+            char c = normalized.charAt(end);
+            if (Character.isWhitespace(c) || c == '(') {
+                break;
+            }
+            end++;
+        }
+        return normalized.substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return sql;
+    }
+}
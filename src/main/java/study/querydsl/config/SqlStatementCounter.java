@@ -0,0 +1,44 @@
+package study.querydsl.config;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 스레드별로 실행된 SQL 수를 세는 카운터
+ * 값은 계속 증가하기만 하므로, 구간 전후의 값 차이로 해당 구간에서 실행된 SQL 수를 구함
+ *
+ * 다른 스레드에서 실행되는 조회(searchQueryExecutor)도 요청한 스레드의 카운터에 더하도록 TaskDecorator로 카운터를 넘김
+ * 여러 스레드가 같은 카운터를 올릴 수 있으므로 AtomicLong 사용
+ */
+@Component
+public class SqlStatementCounter implements SqlStatementListener, TaskDecorator {
+
+    private final ThreadLocal<AtomicLong> count = ThreadLocal.withInitial(AtomicLong::new);
+
+    @Override
+    public void onStatement(SqlStatement statement) {
+        count.get().incrementAndGet();
+    }
+
+    public long current() {
+        return count.get().get();
+    }
+
+    //작업을 제출한 스레드의 카운터로 실행하고, 끝나면 작업 스레드의 카운터로 되돌림
+    //기다리지 않고 버린 작업(count timeout)이 늦게 실행한 문장은 제출한 스레드의 다음 구간에 더해질 수 있음
+    @Override
+    public Runnable decorate(Runnable task) {
+        AtomicLong submitter = count.get();
+        return () -> {
+            AtomicLong previous = count.get();
+            count.set(submitter);
+            try {
+                task.run();
+            } finally {
+                count.set(previous);
+            }
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package study.querydsl.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+
+/**
+ * 하이버네이트의 StatementInspector는 하나만 등록할 수 있으므로, 등록된 SqlStatementListener 빈들에게 SQL을 나눠주는 역할만 함
+ * 엔티티의 persist, 벌크 update/delete, 네이티브 쿼리 모두 이 경로를 지나감
+ */
+public class SqlStatementInspector implements StatementInspector {
+
+    private final ObjectProvider<SqlStatementListener> listenerProvider;
+    private volatile List<SqlStatementListener> listeners;
+
+    public SqlStatementInspector(ObjectProvider<SqlStatementListener> listenerProvider) {
+        this.listenerProvider = listenerProvider;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        SqlStatement statement = new SqlStatement(sql);
+        for (SqlStatementListener listener : listeners()) {
+            listener.onStatement(statement);
+        }
+        return sql;
+    }
+
+    //EntityManagerFactory가 먼저 만들어지고 리스너 빈은 나중에 만들어질 수 있으므로 처음 SQL이 실행될 때 조회
+    private List<SqlStatementListener> listeners() {
+        List<SqlStatementListener> result = listeners;
+        if (result == null) {
+            result = listenerProvider.orderedStream().toList();
+            listeners = result;
+        }
+        return result;
+    }
+}
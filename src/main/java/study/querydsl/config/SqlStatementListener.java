@@ -0,0 +1,10 @@
+package study.querydsl.config;
+
+/**
+ * 실행되는 모든 SQL을 전달받는 리스너, 스프링 빈으로 등록하면 SqlStatementInspector가 호출함
+ * SQL 실행 경로에서 호출되므로 가볍게 구현해야 함
+ */
+public interface SqlStatementListener {
+
+    void onStatement(SqlStatement statement);
+}
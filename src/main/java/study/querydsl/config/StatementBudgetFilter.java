@@ -0,0 +1,37 @@
+package study.querydsl.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * HTTP 요청 하나를 NPlusOneDetector의 측정 구간으로 묶음
+ * open-in-view로 컨트롤러에서 지연 로딩되는 SQL도 같은 요청으로 집계됨
+ */
+@Component
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+    private final NPlusOneDetector detector;
+
+    public StatementBudgetFilter(NPlusOneDetector detector) {
+        this.detector = detector;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean started = detector.begin(request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (started) {
+                detector.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * spring.threads.virtual.enabled=true 이고 JDK 21 이상에서 실행할 때만 적용 (실행 중인 JVM 버전으로 판단하므로 17로 컴파일해도 됨)
+ * 톰캣 요청 처리와 리포지토리 호출이 가상 스레드에서 실행되므로, 커넥션 풀 크기만큼의 세마포어로 DB 동시 사용을 제한
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionPermitPostProcessor() {
+        return new ConnectionPermitPostProcessor();
+    }
+
+    //p6spy 등 다른 DataSource 데코레이터보다 먼저 실제 커넥션 풀(Hikari)을 감싸도록 우선순위를 가장 높게 줌
+    //permit 수는 바인딩이 끝난 풀의 maximumPoolSize 로 맞춤 (ConnectionPermitDataSource 설명 참고)
+    static class ConnectionPermitPostProcessor implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource hikari) {
+                return new ConnectionPermitDataSource(hikari, hikari.getMaximumPoolSize(), Duration.ofMillis(hikari.getConnectionTimeout()));
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
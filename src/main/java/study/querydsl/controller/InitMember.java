@@ -1,17 +1,18 @@
 package study.querydsl.controller;
 
 import jakarta.annotation.PostConstruct;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import study.querydsl.entity.Member;
-import study.querydsl.entity.Team;
+import study.querydsl.repository.BulkLoadResult;
+import study.querydsl.repository.MemberBulkLoader;
 
-@Profile("local")
+import java.util.List;
+
+@Profile({"local", "perf"})
 @Component
 @RequiredArgsConstructor
 public class InitMember {
@@ -23,22 +24,22 @@ public class InitMember {
         initMemberService.init();
     }
 
+    @Slf4j
     @Service
     static class InitMemberService {
-        @PersistenceContext
-        private EntityManager entityManager;
+        private final MemberBulkLoader memberBulkLoader;
+        private final int memberCount;
+
+        InitMemberService(MemberBulkLoader memberBulkLoader, @Value("${app.seed.member-count:100}") int memberCount) {
+            this.memberBulkLoader = memberBulkLoader;
+            this.memberCount = memberCount;
+        }
 
-        @Transactional
+        //MemberBulkLoader가 배치마다 커밋하므로 트랜잭션을 열지 않음
         public void init() {
-            Team teamA = new Team("teamA");
-            Team teamB = new Team("teamB");
-            entityManager.persist(teamA);
-            entityManager.persist(teamB);
-
-            for (int i = 0; i < 100; i++) {
-                Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-                entityManager.persist(new Member("member" + i, i, selectedTeam));
-            }
+            BulkLoadResult result = memberBulkLoader.load(List.of("teamA", "teamB"), memberCount);
+            log.info("seeded {} rows in {} ms ({} rows/sec)",
+                    result.rows(), result.elapsed().toMillis(), String.format("%.0f", result.rowsPerSecond()));
         }
     }
 }
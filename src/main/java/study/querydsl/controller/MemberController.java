@@ -1,22 +1,133 @@
 package study.querydsl.controller;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.querydsl.dto.CursorPage;
+import study.querydsl.dto.MemberCursorSort;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final MemberJpaRepository memberJpaRepository;
+    private final MemberRepository memberRepository;
+    private final ObjectMapper objectMapper;
 
+    //MemberSearchResultCache를 거치는 searchMemberTeam으로 조회 (jpa 백엔드는 searchByWhereParameter와 같은 쿼리)
     @GetMapping("/v1/members")
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
-        return memberJpaRepository.searchByWhereParameter(condition);
+        return memberRepository.searchMemberTeam(condition);
+    }
+
+    @GetMapping("/v2/members")
+    public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
+        return memberRepository.searchPage(condition, pageable);
+    }
+
+    //컨텐츠/count 쿼리를 동시에 실행, count가 늦으면 totalElements 없이 응답
+    @GetMapping("/v3/members")
+    public Slice<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
+        return memberRepository.searchPageConcurrently(condition, pageable);
+    }
+
+    //커서 기반 페이징 - 응답의 nextCursor를 cursor 파라미터로 넘기면 다음 페이지 조회
+    //size는 1 ~ MAX_PAGE_SIZE 로 맞추고, 잘못된 커서(정렬 기준이 다르거나 디코딩 실패)는 400
+    @GetMapping("/v1/members/cursor")
+    public CursorPage<MemberTeamDto> searchMemberByCursor(MemberSearchCondition condition,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(defaultValue = "ID") MemberCursorSort sort,
+                                                         @RequestParam(defaultValue = "20") int size) {
+        try {
+            return memberRepository.searchMemberTeamByCursor(condition, sort, cursor, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 검색 결과 전체를 NDJSON/CSV로 내려받기
+     * 조회한 행을 바로 응답 스트림에 쓰기 때문에 행 수와 상관없이 메모리 사용량이 일정함
+     */
+    @GetMapping("/v1/members/export")
+    public ResponseEntity<StreamingResponseBody> exportMembers(MemberSearchCondition condition,
+                                                               @RequestParam(defaultValue = "NDJSON") MemberExportFormat format) {
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+            generator.setRootValueSeparator(null); //NDJSON은 행 구분자를 직접 씀
+            format.writeHeader(writer);
+            streamRows(condition, dto -> format.writeRow(writer, generator, dto));
+            generator.flush();
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=members." + format.name().toLowerCase())
+                .body(body);
+    }
+
+    /**
+     * /v1/members 와 같은 결과를 JSON 배열로 스트리밍
+     * 전체 List를 만들지 않고 조회한 행을 MemberJsonWriter로 바로 응답 스트림에 씀
+     */
+    @GetMapping("/v1/members/stream")
+    public ResponseEntity<StreamingResponseBody> streamMembers(MemberSearchCondition condition) {
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+            generator.writeStartArray();
+            streamRows(condition, dto -> MemberJsonWriter.write(generator, dto));
+            generator.writeEndArray();
+            generator.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    private void streamRows(MemberSearchCondition condition, RowWriter rowWriter) throws IOException {
+        try {
+            memberJpaRepository.streamByWhereParameter(condition, dto -> {
+                try {
+                    rowWriter.write(dto);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(MemberTeamDto dto) throws IOException;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,71 @@
+package study.querydsl.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * /v1/members/export 의 출력 형식
+ * 한 행씩 바로 쓰기 때문에 응답 전체를 메모리에 만들지 않음
+ */
+public enum MemberExportFormat {
+
+    NDJSON("application/x-ndjson") {
+        @Override
+        void writeHeader(Writer writer) {
+        }
+
+        @Override
+        void writeRow(Writer writer, JsonGenerator generator, MemberTeamDto dto) throws IOException {
+            MemberJsonWriter.write(generator, dto); //행마다 문자열을 만들지 않고 generator 버퍼에 바로 씀
+            generator.writeRaw('\n');
+        }
+    },
+    CSV("text/csv") {
+        @Override
+        void writeHeader(Writer writer) throws IOException {
+            writer.write("memberId,username,age,teamId,teamName\n");
+        }
+
+        @Override
+        void writeRow(Writer writer, JsonGenerator generator, MemberTeamDto dto) throws IOException {
+            writer.write(String.valueOf(dto.getMemberId()));
+            writer.write(',');
+            writer.write(escape(dto.getUsername()));
+            writer.write(',');
+            writer.write(String.valueOf(dto.getAge()));
+            writer.write(',');
+            writer.write(dto.getTeamId() == null ? "" : String.valueOf(dto.getTeamId()));
+            writer.write(',');
+            writer.write(escape(dto.getTeamName()));
+            writer.write('\n');
+        }
+
+        private String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    };
+
+    private final String contentType;
+
+    MemberExportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    abstract void writeHeader(Writer writer) throws IOException;
+
+    //generator는 writer 위에 만들어진 것, 한 행은 둘 중 하나로만 씀
+    abstract void writeRow(Writer writer, JsonGenerator generator, MemberTeamDto dto) throws IOException;
+}
@@ -0,0 +1,84 @@
+package study.querydsl.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.IOException;
+
+/**
+ * MemberTeamDto, MemberDto 를 리플렉션(BeanSerializer) 없이 필드 순서대로 바로 쓰는 JSON 직렬화
+ * 필드 이름은 미리 인코딩(SerializedString)해두고, 출력 결과는 ObjectMapper 기본 직렬화와 같음
+ * @JsonComponent 로 등록되므로 ObjectMapper 를 쓰는 기존 응답(/v1/members 등)도 이 직렬화를 사용함
+ */
+@JsonComponent
+public final class MemberJsonWriter {
+
+    private static final SerializableString MEMBER_ID = new SerializedString("memberId");
+    private static final SerializableString USERNAME = new SerializedString("username");
+    private static final SerializableString AGE = new SerializedString("age");
+    private static final SerializableString TEAM_ID = new SerializedString("teamId");
+    private static final SerializableString TEAM_NAME = new SerializedString("teamName");
+
+    MemberJsonWriter() { //@JsonComponent 빈으로만 생성됨
+    }
+
+    public static void write(JsonGenerator generator, MemberTeamDto dto) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(MEMBER_ID);
+        writeNumber(generator, dto.getMemberId());
+        generator.writeFieldName(USERNAME);
+        generator.writeString(dto.getUsername());
+        generator.writeFieldName(AGE);
+        generator.writeNumber(dto.getAge());
+        generator.writeFieldName(TEAM_ID);
+        writeNumber(generator, dto.getTeamId());
+        generator.writeFieldName(TEAM_NAME);
+        generator.writeString(dto.getTeamName());
+        generator.writeEndObject();
+    }
+
+    public static void write(JsonGenerator generator, MemberDto dto) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(USERNAME);
+        generator.writeString(dto.getUsername());
+        generator.writeFieldName(AGE);
+        generator.writeNumber(dto.getAge());
+        generator.writeEndObject();
+    }
+
+    private static void writeNumber(JsonGenerator generator, Long value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+
+    static class MemberTeamDtoSerializer extends StdSerializer<MemberTeamDto> {
+        MemberTeamDtoSerializer() {
+            super(MemberTeamDto.class);
+        }
+
+        @Override
+        public void serialize(MemberTeamDto value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            write(generator, value);
+        }
+    }
+
+    static class MemberDtoSerializer extends StdSerializer<MemberDto> {
+        MemberDtoSerializer() {
+            super(MemberDto.class);
+        }
+
+        @Override
+        public void serialize(MemberDto value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            write(generator, value);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import study.querydsl.repository.MemberTeamViewMaintenance;
+import study.querydsl.repository.MemberTeamViewMaintenance.ConsistencyReport;
+
+import java.util.List;
+
+/**
+ * 시작 인자로 읽기 모델(member_team_view)을 관리
+ * --read-model=rebuild : member, team 으로부터 다시 생성
+ * --read-model=verify  : 원본과 다른 행 수를 로그로 남김
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.read-model.enabled", havingValue = "true")
+public class MemberTeamViewCommand implements ApplicationRunner {
+
+    private final MemberTeamViewMaintenance maintenance;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<String> commands = args.getOptionValues("read-model");
+        if (commands == null) {
+            return;
+        }
+        for (String command : commands) {
+            switch (command) {
+                case "rebuild" -> {
+                    long start = System.nanoTime();
+                    long rows = maintenance.rebuild();
+                    log.info("member_team_view rebuilt: {} rows in {} ms", rows, (System.nanoTime() - start) / 1_000_000);
+                }
+                case "verify" -> {
+                    ConsistencyReport report = maintenance.verify();
+                    if (report.isConsistent()) {
+                        log.info("member_team_view is consistent");
+                    } else {
+                        log.warn("member_team_view is inconsistent: {}", report);
+                    }
+                }
+                default -> throw new IllegalArgumentException("알 수 없는 read-model 명령입니다. command=" + command + " (rebuild|verify)");
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.TeamStatisticsDto;
+import study.querydsl.repository.TeamStatisticsStore;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamStatisticsStore teamStatisticsStore;
+
+    //팀별 회원 수, 나이 평균/최대/최소 - 요청마다 group by 하지 않고 메모리에 유지한 값을 응답
+    @GetMapping("/v1/teams/stats")
+    public List<TeamStatisticsDto> teamStatistics() {
+        return teamStatisticsStore.statistics();
+    }
+}
@@ -0,0 +1,22 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 커서 기반 페이지 - 다음 페이지를 조회할 때는 nextCursor를 그대로 넘겨주면 됨
+ * nextCursor는 클라이언트가 해석하지 않는 불투명한(opaque) 값
+ */
+@Getter
+public class CursorPage<T> {
+    private final List<T> content;
+    private final String nextCursor;
+    private final boolean hasNext;
+
+    public CursorPage(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+    }
+}
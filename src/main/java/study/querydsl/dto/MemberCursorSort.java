@@ -0,0 +1,10 @@
+package study.querydsl.dto;
+
+/**
+ * 커서(keyset) 페이징의 정렬 기준
+ * 마지막 정렬 키는 항상 member.id 라서 정렬 값이 같아도 순서가 유일하게 결정됨
+ */
+public enum MemberCursorSort {
+    ID,
+    AGE
+}
@@ -0,0 +1,25 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+/**
+ * 팀별 회원 수, 나이 평균/최대/최소 - 회원이 없는 팀은 나이 값이 null
+ */
+@Getter
+public class TeamStatisticsDto {
+    private final Long teamId;
+    private final String teamName;
+    private final long count;
+    private final Double avgAge;
+    private final Integer maxAge;
+    private final Integer minAge;
+
+    public TeamStatisticsDto(Long teamId, String teamName, long count, Double avgAge, Integer maxAge, Integer minAge) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.count = count;
+        this.avgAge = avgAge;
+        this.maxAge = maxAge;
+        this.minAge = minAge;
+    }
+}
@@ -0,0 +1,10 @@
+package study.querydsl.dto;
+
+/**
+ * 회원명 검색 방식, 지정하지 않으면(null) EXACT
+ */
+public enum UsernameMatch {
+    EXACT,
+    PREFIX,
+    CONTAINS
+}
@@ -2,16 +2,25 @@ package study.querydsl.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"}) // 연관관계 필드인 team은 넣지말자
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username"),
+        @Index(name = "idx_member_age", columnList = "age"),
+        //팀명 + 나이 조건을 한 번에 찾는 복합 인덱스, 선두 컬럼이 team_id 이므로 FK(join) 인덱스로도 사용됨
+        @Index(name = "idx_member_team_age", columnList = "team_id, age")
+})
+@BatchSize(size = 100) //캐시된 team.members의 회원들을 한 건씩이 아니라 in 절로 묶어서 조회
 public class Member {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 100) //시퀀스를 한 번 조회하면 100개의 id를 메모리에서 할당(pooled)
     @Column(name = "member_id")
     private Long id;
     private String username;
@@ -0,0 +1,34 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * 회원 검색 결과(MemberTeamDto)를 member/team join 없이 읽기 위한 비정규화 테이블 (app.read-model.enabled)
+ * 애플리케이션에서 직접 저장하지 않고 MemberTeamViewSynchronizer가 member/team 변경에 맞춰 SQL로 갱신함
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+@Table(name = "member_team_view", indexes = {
+        @Index(name = "idx_member_team_view_username", columnList = "username"),
+        @Index(name = "idx_member_team_view_age", columnList = "age"),
+        @Index(name = "idx_member_team_view_team_name_age", columnList = "team_name, age"),
+        @Index(name = "idx_member_team_view_team_id", columnList = "team_id") //팀명 변경 시 갱신할 행을 찾는 용도
+})
+public class MemberTeamView {
+
+    @Id
+    @Column(name = "member_id")
+    private Long memberId;
+    private String username;
+    private int age;
+    @Column(name = "team_id")
+    private Long teamId;
+    @Column(name = "team_name")
+    private String teamName;
+}
@@ -2,6 +2,9 @@ package study.querydsl.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -11,15 +14,22 @@ import java.util.List;
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"}) // 연관관계 필드인 members는 넣지말자
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) //거의 바뀌지 않는 팀 정보는 2차 캐시에서 조회 (영역 크기: ehcache.xml)
+@BatchSize(size = 100) //member.getTeam() 프록시를 초기화할 때 다른 팀 프록시도 in 절로 같이 초기화
 public class Team {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+    @SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 100)
     @Column(name = "team_id")
     private Long id;
     private String name;
 
     @OneToMany(mappedBy = "team")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE) //회원 id 목록만 캐시하고, 회원은 id로 다시 조회함(Member의 @BatchSize)
+    @BatchSize(size = 100) //team.getMembers()를 초기화할 때 영속성 컨텍스트의 다른 팀 컬렉션도 같이 초기화
     private List<Member> members = new ArrayList<>();
 
     public Team(String name) {
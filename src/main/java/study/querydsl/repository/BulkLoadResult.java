@@ -0,0 +1,11 @@
+package study.querydsl.repository;
+
+import java.time.Duration;
+
+public record BulkLoadResult(long rows, Duration elapsed) {
+
+    public double rowsPerSecond() {
+        long nanos = Math.max(elapsed.toNanos(), 1);
+        return rows * 1_000_000_000d / nanos;
+    }
+}
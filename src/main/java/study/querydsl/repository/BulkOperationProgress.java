@@ -0,0 +1,8 @@
+package study.querydsl.repository;
+
+/**
+ * 청크 하나가 커밋된 뒤에 전달되는 진행 상황
+ * lastId 까지 처리했으므로 중간에 실패하면 lastId 이후부터 다시 실행하면 됨
+ */
+public record BulkOperationProgress(int chunk, long chunkRows, long totalRows, long lastId) {
+}
@@ -0,0 +1,6 @@
+package study.querydsl.repository;
+
+import java.time.Duration;
+
+public record BulkOperationResult(long rows, int chunks, Duration elapsed) {
+}
@@ -0,0 +1,196 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 하이버네이트 insert/update/delete 이벤트를 한 번만 받아서 구독자(EntityChangeSubscriber)별로 트랜잭션(세션) 단위로 모아주는 리스너
+ *
+ * 1. 이벤트가 발생하면 구독자가 필요한 값만 복사한 변경을 세션별, 구독자별 PendingChanges에 모아둠
+ * 2. 이벤트가 없는 벌크 수정/삭제는 bulkChange로 실행해서 대상 회원의 전후 값을 같은 방법으로 모아둠
+ * 3. 커밋 직전(flush 이후)에 beforeCommit, 트랜잭션이 끝나면(커밋/롤백) afterCompletion으로 모은 변경을 넘겨줌
+ *
+ * 세션은 약한 참조 키로 보관하므로, 트랜잭션 완료 처리 없이 닫힌 세션의 변경도 남지 않음
+ */
+@Slf4j
+@Component
+public class EntityChangeCollector implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final EntityManager entityManager;
+    private final JPAQueryFactory queryFactory;
+    private final List<EntityChangeSubscriber<?>> subscribers = new CopyOnWriteArrayList<>();
+    private final Map<EventSource, SessionChanges> pendingBySession = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public EntityChangeCollector(EntityManagerFactory entityManagerFactory, EntityManager entityManager) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.entityManager = entityManager;
+        this.queryFactory = new JPAQueryFactory(entityManager);
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    public void subscribe(EntityChangeSubscriber<?> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * 벌크 쿼리처럼 이벤트 없이 회원을 수정/삭제하는 operation을 실행하고, 대상 회원의 전후 값을 구독자에게 전달
+     * 전달한 변경은 이벤트로 모은 변경과 함께 현재 트랜잭션의 커밋 직전/완료 후에 반영되므로 트랜잭션 안에서 호출해야 함
+     * @return operation의 결과 (수정/삭제된 행 수)
+     */
+    public long bulkChange(Collection<Long> memberIds, LongSupplier operation) {
+        Map<Long, MemberBulkChange.State> before = memberStates(memberIds);
+        long rows = operation.getAsLong();
+        Map<Long, MemberBulkChange.State> after = memberStates(memberIds);
+        List<MemberBulkChange> bulkChanges = new ArrayList<>(before.size());
+        before.forEach((id, state) -> bulkChanges.add(new MemberBulkChange(id, state, after.get(id))));
+        dispatch(entityManager.unwrap(EventSource.class), (subscriber, changes) -> subscriber.onBulkChange(bulkChanges, changes)); //트랜잭션에 묶인 EntityManager
+        return rows;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        dispatch(event.getSession(), (subscriber, changes) -> subscriber.onInsert(event, changes));
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        dispatch(event.getSession(), (subscriber, changes) -> subscriber.onUpdate(event, changes));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        dispatch(event.getSession(), (subscriber, changes) -> subscriber.onDelete(event, changes));
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private Map<Long, MemberBulkChange.State> memberStates(Collection<Long> memberIds) {
+        Map<Long, MemberBulkChange.State> states = new HashMap<>();
+        for (Tuple row : queryFactory
+                .select(member.id, member.username, member.age, member.team.id)
+                .from(member)
+                .where(member.id.in(memberIds))
+                .fetch()) {
+            states.put(row.get(member.id), new MemberBulkChange.State(row.get(member.username), row.get(member.age), row.get(member.team.id)));
+        }
+        return states;
+    }
+
+    //변경을 넣을 때 처음으로 세션의 변경 목록을 만들므로, 관심 없는 이벤트만 있는 트랜잭션에는 아무것도 등록하지 않음
+    @SuppressWarnings("unchecked")
+    private void dispatch(EventSource session, BiConsumer<EntityChangeSubscriber<Object>, Consumer<Object>> action) {
+        for (EntityChangeSubscriber<?> subscriber : subscribers) {
+            EntityChangeSubscriber<Object> typed = (EntityChangeSubscriber<Object>) subscriber;
+            action.accept(typed, change -> pending(session).of(typed).add(change));
+        }
+    }
+
+    //세션(트랜잭션)마다 한 번만 커밋 직전/완료 처리를 등록
+    private SessionChanges pending(EventSource session) {
+        return pendingBySession.computeIfAbsent(session, s -> {
+            SessionChanges changes = new SessionChanges();
+            s.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) sessionImplementor -> changes.beforeCommit(s));
+            s.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, sessionImplementor) -> {
+                pendingBySession.remove(s);
+                changes.afterCompletion(success);
+            });
+            return changes;
+        });
+    }
+
+    private static class SessionChanges {
+        private final Map<EntityChangeSubscriber<?>, Subscription<?>> bySubscriber = new LinkedHashMap<>();
+
+        @SuppressWarnings("unchecked")
+        private <C> PendingChanges<C> of(EntityChangeSubscriber<C> subscriber) {
+            return ((Subscription<C>) bySubscriber.computeIfAbsent(subscriber, Subscription::new)).changes;
+        }
+
+        //beforeCommit 안에서 flush 되어 다른 구독자의 변경이 추가될 수 있으므로 복사해서 순회
+        private void beforeCommit(EventSource session) {
+            for (Subscription<?> subscription : new ArrayList<>(bySubscriber.values())) {
+                subscription.beforeCommit(session);
+            }
+        }
+
+        //한 구독자가 실패해도 나머지 구독자는 반영(락 해제 등)되도록 예외를 로그로만 남김
+        private void afterCompletion(boolean committed) {
+            for (Subscription<?> subscription : bySubscriber.values()) {
+                try {
+                    subscription.afterCompletion(committed);
+                } catch (RuntimeException e) {
+                    log.error("entity change subscriber failed after transaction completion: {}", subscription.subscriber, e);
+                }
+            }
+        }
+    }
+
+    private static class Subscription<C> {
+        private final EntityChangeSubscriber<C> subscriber;
+        private final PendingChanges<C> changes;
+
+        private Subscription(EntityChangeSubscriber<?> subscriber) {
+            this.subscriber = cast(subscriber);
+            this.changes = new PendingChanges<>(subscriber.maxPendingChanges());
+        }
+
+        private void beforeCommit(EventSource session) {
+            subscriber.beforeCommit(session, changes);
+        }
+
+        private void afterCompletion(boolean committed) {
+            subscriber.afterCompletion(committed, changes);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <C> EntityChangeSubscriber<C> cast(EntityChangeSubscriber<?> subscriber) {
+            return (EntityChangeSubscriber<C>) subscriber;
+        }
+    }
+}
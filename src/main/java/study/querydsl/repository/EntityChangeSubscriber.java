@@ -0,0 +1,41 @@
+package study.querydsl.repository;
+
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * EntityChangeCollector가 트랜잭션(세션)별로 모아준 엔티티 변경으로 파생 데이터(인덱스, 집계, 읽기 모델)를 갱신하는 구독자
+ * 이벤트에서 필요한 값만 C로 복사해서 changes에 넣어두고, 커밋 직전이나 트랜잭션이 끝난 뒤에 한 번에 반영함
+ */
+public interface EntityChangeSubscriber<C> {
+
+    //한 트랜잭션에서 모을 최대 변경 수, 넘으면 PendingChanges.isOverflowed()
+    int maxPendingChanges();
+
+    //관심 없는 엔티티의 이벤트면 changes에 넣지 않음
+    default void onInsert(PostInsertEvent event, Consumer<C> changes) {
+    }
+
+    default void onUpdate(PostUpdateEvent event, Consumer<C> changes) {
+    }
+
+    default void onDelete(PostDeleteEvent event, Consumer<C> changes) {
+    }
+
+    //이벤트가 없는 벌크 수정/삭제 (EntityChangeCollector.bulkChange)
+    default void onBulkChange(List<MemberBulkChange> bulkChanges, Consumer<C> changes) {
+    }
+
+    //커밋 직전(flush 이후), 원래 변경과 같은 트랜잭션에서 실행할 작업 - 예외를 던지면 트랜잭션이 롤백됨
+    default void beforeCommit(EventSource session, PendingChanges<C> changes) {
+    }
+
+    //트랜잭션이 끝난 뒤, 롤백이면 committed가 false
+    default void afterCompletion(boolean committed, PendingChanges<C> changes) {
+    }
+}
@@ -0,0 +1,12 @@
+package study.querydsl.repository;
+
+/**
+ * 엔티티를 조회하는 방식
+ * MANAGED는 조회한 엔티티의 스냅샷을 보관해서 커밋 시점에 변경 감지(dirty checking)를 하고, 쿼리 전에 auto flush를 함
+ * READ_ONLY는 스냅샷 없이 읽기 전용 엔티티로 로딩하고 쿼리 전에 flush 하지 않음 (FlushModeType.COMMIT)
+ * READ_ONLY로 조회한 엔티티를 수정해도 DB에 반영되지 않고, 같은 트랜잭션에서 flush 하지 않은 변경은 조회 결과에 보이지 않음
+ */
+public enum EntityQueryMode {
+    MANAGED,
+    READ_ONLY
+}
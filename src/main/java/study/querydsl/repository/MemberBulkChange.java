@@ -0,0 +1,10 @@
+package study.querydsl.repository;
+
+/**
+ * 이벤트 없이(벌크 쿼리) 바뀐 회원 한 명의 전후 값, 삭제되었으면 after가 null
+ */
+public record MemberBulkChange(long memberId, State before, State after) {
+
+    public record State(String username, int age, Long teamId) {
+    }
+}
@@ -0,0 +1,70 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 대량의 팀/회원 데이터를 빠르게 넣기 위한 로더
+ * 1. 시퀀스는 pooled 방식으로 할당(allocationSize)해서 insert 마다 시퀀스를 조회하지 않음
+ * 2. hibernate.jdbc.batch_size 만큼 insert를 JDBC 배치로 묶어서 전송(order_inserts로 같은 테이블끼리 정렬)
+ * 3. 배치 크기마다 별도의 트랜잭션으로 커밋해서 영속성 컨텍스트와 트랜잭션(락, undo)이 계속 커지지 않게 함
+ *    그래서 트랜잭션 안에서 호출하면 안 됨 (바깥 트랜잭션에 참여하면 한 번에 커밋됨)
+ */
+@Repository
+public class MemberBulkLoader {
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate batchTransaction;
+    private final int batchSize;
+
+    public MemberBulkLoader(EntityManager entityManager,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}") int batchSize) {
+        this.entityManager = entityManager;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(batchSize, 1); //batch_size를 0으로 꺼도 한 건씩 커밋하도록
+    }
+
+    /**
+     * 팀을 만들고 회원을 팀에 번갈아 가며 배정 (회원 i의 이름은 "member" + i, 나이는 i)
+     * 중간에 실패하면 그 전 배치까지는 커밋되어 남음
+     */
+    public BulkLoadResult load(List<String> teamNames, int memberCount) {
+        long start = System.nanoTime();
+
+        List<Long> teamIds = new ArrayList<>(teamNames.size());
+        batchTransaction.executeWithoutResult(status -> {
+            for (String teamName : teamNames) {
+                Team team = new Team(teamName);
+                entityManager.persist(team);
+                teamIds.add(team.getId());
+            }
+        });
+
+        for (int from = 0; from < memberCount; from += batchSize) {
+            int batchStart = from;
+            int batchEnd = Math.min(from + batchSize, memberCount);
+            batchTransaction.executeWithoutResult(status -> {
+                for (int i = batchStart; i < batchEnd; i++) {
+                    Member member = new Member("member" + i, i);
+                    if (!teamIds.isEmpty()) {
+                        //getReference는 프록시만 만들고, changeTeam()과 달리 team.members 컬렉션을 초기화하지 않음
+                        member.setTeam(entityManager.getReference(Team.class, teamIds.get(i % teamIds.size())));
+                    }
+                    entityManager.persist(member);
+                }
+            });
+        }
+
+        return new BulkLoadResult(teamNames.size() + (long) memberCount, Duration.ofNanos(System.nanoTime() - start));
+    }
+}
@@ -1,19 +1,45 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.BooleanBuilder;
-import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
 
-import static org.springframework.util.StringUtils.hasLength;
 import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
@@ -21,17 +47,28 @@ import static study.querydsl.entity.QTeam.team;
 @Repository
 public class MemberJpaRepository {
 
+    private static final int STREAM_FETCH_SIZE = 500; //JDBC 드라이버가 한 번에 가져오는 행 수
+    private static final int MULTI_GET_CHUNK_SIZE = 512; //in 절 하나에 넣는 최대 id 수 (2의 거듭제곱이라 in_clause_parameter_padding으로 늘어나지 않음)
+
     private final EntityManager entityManager;
     private final JPAQueryFactory jpaQueryFactory;
+    private final MemberSearchQueryCache searchQueryCache;
+    private final TransactionTemplate chunkTransaction;
+    private final EntityChangeCollector changeCollector;
 
     /**
      * JPAQueryFactory의 동시성 문제는 EntityManager에 의존함
      * EntityManager는 스프링과 함께 사용할 때, 동시성 문제에 상관없이 트랜잭션 단위로 분리되어 실행됨
      * 그래서 동시성 문제가 발생하지 않음
      */
-    public MemberJpaRepository(EntityManager entityManager) {
+    public MemberJpaRepository(EntityManager entityManager, MemberSearchQueryCache searchQueryCache,
+                               PlatformTransactionManager transactionManager,
+                               EntityChangeCollector changeCollector) {
         this.entityManager = entityManager;
         this.jpaQueryFactory = new JPAQueryFactory(entityManager); //this.jpaQueryFactory = jpaQueryFactory; 보다 더 나은 코드
+        this.searchQueryCache = searchQueryCache;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.changeCollector = changeCollector;
     }
 
     public void save(Member member) {
@@ -43,6 +80,49 @@ public class MemberJpaRepository {
         return Optional.ofNullable(member);
     }
 
+    /**
+     * 여러 회원을 id로 한 번에 조회 - 요청한 id 순서대로 반환하고, 없는 id는 건너뜀 (중복된 id는 중복해서 반환)
+     * 영속성 컨텍스트에 이미 있는 회원은 쿼리 없이 사용하고, 나머지만 MULTI_GET_CHUNK_SIZE 건씩 in 절로 조회
+     * in 절의 파라미터 수는 hibernate.query.in_clause_parameter_padding 설정으로 2의 거듭제곱에 맞춰지므로 id 수가 달라도 같은 SQL을 재사용함
+     */
+    @Transactional(readOnly = true)
+    public List<Member> findAllByIds(Collection<Long> ids) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Member.class);
+        Map<Long, Member> found = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            if (id == null) {
+                continue;
+            }
+            Object managed = session.getPersistenceContextInternal().getEntity(session.generateEntityKey(id, persister));
+            if (managed == null) {
+                misses.add(id);
+            } else if (!session.getPersistenceContextInternal().getEntry(managed).getStatus().isDeletedOrGone()) { //삭제한 회원은 find()처럼 없는 것으로 봄
+                found.put(id, (Member) managed);
+            }
+        }
+
+        for (int from = 0; from < misses.size(); from += MULTI_GET_CHUNK_SIZE) {
+            List<Long> chunk = misses.subList(from, Math.min(from + MULTI_GET_CHUNK_SIZE, misses.size()));
+            for (Member loaded : jpaQueryFactory
+                    .selectFrom(member)
+                    .where(member.id.in(chunk))
+                    .fetch()) {
+                found.put(loaded.getId(), loaded);
+            }
+        }
+
+        List<Member> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Member hit = id == null ? null : found.get(id);
+            if (hit != null) {
+                result.add(hit);
+            }
+        }
+        return result;
+    }
+
     public Member findByIdQueryDsl(Long id) {
         return jpaQueryFactory
                 .selectFrom(member)
@@ -50,14 +130,33 @@ public class MemberJpaRepository {
                 .fetchOne();
     }
 
+    @Transactional(readOnly = true) //읽기 전용 트랜잭션은 replica로 라우팅 (DataSourceRoutingConfig)
     public List<Member> findAll() {
-        return entityManager.createQuery("select m from Member m", Member.class)
-                .getResultList();
+        return findAll(EntityQueryMode.MANAGED);
     }
 
+    /**
+     * 새로 시작한 읽기 전용 트랜잭션은 스프링이 세션 전체를 읽기 전용으로 만들지만,
+     * 이미 열린 쓰기 트랜잭션에 참여하면 MANAGED 로는 조회한 회원마다 스냅샷이 남으므로 수정하지 않을 때는 READ_ONLY를 사용
+     */
+    @Transactional(readOnly = true)
+    public List<Member> findAll(EntityQueryMode mode) {
+        TypedQuery<Member> query = entityManager.createQuery("select m from Member m", Member.class);
+        if (mode == EntityQueryMode.READ_ONLY) {
+            query.setFlushMode(FlushModeType.COMMIT)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true);
+        }
+        return query.getResultList();
+    }
+
+    @Transactional(readOnly = true)
     public List<Member> findAllQueryDsl() {
-        return jpaQueryFactory
-                .selectFrom(member)
+        return findAllQueryDsl(EntityQueryMode.MANAGED);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Member> findAllQueryDsl(EntityQueryMode mode) {
+        return withMode(jpaQueryFactory.selectFrom(member), mode)
                 .fetch();
     }
 
@@ -106,8 +205,47 @@ public class MemberJpaRepository {
     }
 
     //Where절 파라미터 사용 - 해당 방법을 가장 추천
+    //조건 조합(쿼리 모양)별로 Param 자리표시자를 써서 미리 직렬화한 JPQL을 재사용 (MemberSearchQueryCache 참고)
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> searchByWhereParameter(MemberSearchCondition condition) {
-        return jpaQueryFactory
+        return searchQueryCache.searchMemberTeam(entityManager, condition);
+    }
+
+    //Where절 파라미터 사용 - select절의 projection이 달라져도 재사용할 수 있는 장점이 있음
+    public List<Member> searchMemberByWhereParameter(MemberSearchCondition condition) {
+        return searchMemberByWhereParameter(condition, EntityQueryMode.MANAGED);
+    }
+
+    public List<Member> searchMemberByWhereParameter(MemberSearchCondition condition, EntityQueryMode mode) {
+        return withMode(jpaQueryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team)
+                .where(MemberSearchPredicates.of(condition)), mode)
+                .fetch();
+    }
+
+    //READ_ONLY면 스냅샷을 만들지 않고(read-only hint), 쿼리 전에 flush 하지 않음
+    private static <T> JPAQuery<T> withMode(JPAQuery<T> query, EntityQueryMode mode) {
+        if (mode == EntityQueryMode.READ_ONLY) {
+            query.setFlushMode(FlushModeType.COMMIT)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true);
+        }
+        return query;
+    }
+
+    /**
+     * 전체 결과를 List로 만들지 않고 한 건씩 consumer에 넘기는 스트리밍 조회
+     * forward-only 커서(scroll)로 읽고, 읽은 회원은 바로 detach 해서 행 수와 상관없이 메모리가 일정함
+     * 커서는 트랜잭션(커넥션)이 열려있는 동안만 읽을 수 있으므로 메서드 안에서 모두 소비함
+     */
+    @Transactional(readOnly = true)
+    public long streamAll(Consumer<Member> consumer) {
+        return forEach(jpaQueryFactory.selectFrom(member), consumer);
+    }
+
+    @Transactional(readOnly = true)
+    public long streamByWhereParameter(MemberSearchCondition condition, Consumer<MemberTeamDto> consumer) {
+        return forEach(jpaQueryFactory
                 .select(new QMemberTeamDto(
                         member.id,
                         member.username,
@@ -117,42 +255,161 @@ public class MemberJpaRepository {
                 ))
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
+                .where(MemberSearchPredicates.of(condition)), consumer);
     }
 
-    //Where절 파라미터 사용 - select절의 projection이 달라져도 재사용할 수 있는 장점이 있음
-    public List<Member> searchMemberByWhereParameter(MemberSearchCondition condition) {
-        return jpaQueryFactory
-                .selectFrom(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
+    /**
+     * JPAQuery의 결과를 forward-only 커서로 fetchSize 건씩 가져오면서 한 행씩 읽음
+     * fetchSize는 JDBC 드라이버가 DB에서 한 번에 가져오는 행 수로, 크면 왕복 횟수가 줄고 작으면 버퍼 메모리가 줄어듦
+     * 엔티티는 읽기 전용으로 로딩하고(스냅샷 없음) 다음 행으로 넘어가면 detach 함, 스크롤 전에 이미 영속 상태였던 엔티티는 그대로 둠
+     * 반환한 ScrollIterator를 다 읽을 때까지 트랜잭션이 열려 있어야 하므로 트랜잭션 밖에서 호출하면 예외
+     * query는 스프링이 주입한 (트랜잭션에 묶인) EntityManager로 만든 JPAQueryFactory에서 만들어야 함
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ScrollIterator<T> scroll(JPAQuery<T> query, int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("fetchSize는 1 이상이어야 합니다. fetchSize=" + fetchSize);
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("scroll은 커서를 다 읽을 때까지 커넥션이 필요하므로 트랜잭션 안에서 호출해야 합니다.");
+        }
+        Consumer<T> release = query.getMetadata().getProjection() instanceof EntityPath
+                ? detachUnlessManagedBefore()
+                : row -> {
+                }; //DTO는 영속성 컨텍스트에 올라가지 않음
+        ScrollableResults<T> results = query.createQuery()
+                .unwrap(org.hibernate.query.Query.class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY);
+        return new ScrollIterator<>(results, release);
+    }
+
+    //스크롤 전에 이미 영속 상태였던 엔티티는 호출한 쪽이 수정 중일 수 있으므로 detach 하지 않음 (flush 하지 않은 변경을 잃지 않도록)
+    private <T> Consumer<T> detachUnlessManagedBefore() {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        Set<Object> managedBefore = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            managedBefore.add(entry.getKey());
+        }
+        return row -> {
+            if (!managedBefore.contains(row)) {
+                entityManager.detach(row);
+            }
+        };
     }
 
-    private BooleanExpression usernameEq(String username) {
-        return !hasLength(username) ? null : member.username.eq(username);
+    //findAll()을 List 대신 커서로 읽음
+    public ScrollIterator<Member> scrollAll(int fetchSize) {
+        return scroll(jpaQueryFactory.selectFrom(member), fetchSize);
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return !hasLength(teamName) ? null : member.team.name.eq(teamName);
+    private <T> long forEach(JPAQuery<T> query, Consumer<T> consumer) {
+        long count = 0;
+        try (ScrollIterator<T> rows = scroll(query, STREAM_FETCH_SIZE)) {
+            while (rows.hasNext()) {
+                consumer.accept(rows.next());
+                count++;
+            }
+        }
+        return count;
     }
 
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe == null ? null : member.age.goe(ageGoe);
+    /**
+     * 조건에 맞는 회원을 id 순서로 chunkSize 건씩 나눠서 수정 (청크마다 별도의 짧은 트랜잭션)
+     * 한 번에 전체를 수정하면 긴 트랜잭션 동안 많은 행에 락이 걸리므로, 청크 단위로 커밋해서 락을 빨리 놓음
+     * 영속성 컨텍스트(OSIV 등)에 이미 로딩된 회원은 청크가 끝날 때 DB 값으로 refresh 함
+     * refresh는 flush 하지 않은 변경을 덮어쓰므로, 영속성 컨텍스트에 변경이 남아 있으면 시작하기 전에 예외 (먼저 저장하거나 clear)
+     * ex) bulkUpdate(condition, update -> update.set(member.age, member.age.add(1)), 1000, progress -> {})
+     */
+    public BulkOperationResult bulkUpdate(MemberSearchCondition condition, Consumer<JPAUpdateClause> assignments,
+                                          int chunkSize, Consumer<BulkOperationProgress> progressListener) {
+        return inChunks(condition, chunkSize, progressListener, ids -> {
+            JPAUpdateClause update = jpaQueryFactory.update(member);
+            assignments.accept(update);
+            long rows = changeCollector.bulkChange(ids, () -> update //벌크 쿼리는 엔티티 이벤트가 없으므로 전후 값을 인덱스, 통계, 읽기 모델에 전달
+                    .where(member.id.in(ids))
+                    .where(MemberSearchPredicates.ofBulk(condition)) //id를 찾은 뒤에 조건에서 벗어난 회원은 수정하지 않음
+                    .execute());
+            forEachManaged(ids, entityManager::refresh);
+            return rows;
+        });
     }
 
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe == null ? null : member.age.loe(ageLoe);
+    /**
+     * 조건에 맞는 회원을 id 순서로 chunkSize 건씩 나눠서 삭제 (청크마다 별도의 짧은 트랜잭션)
+     * 영속성 컨텍스트에 로딩된 회원은 삭제 후 detach 함
+     */
+    public BulkOperationResult bulkDelete(MemberSearchCondition condition, int chunkSize,
+                                          Consumer<BulkOperationProgress> progressListener) {
+        return inChunks(condition, chunkSize, progressListener, ids -> {
+            long rows = changeCollector.bulkChange(ids, () -> jpaQueryFactory
+                    .delete(member)
+                    .where(member.id.in(ids))
+                    .where(MemberSearchPredicates.ofBulk(condition))
+                    .execute());
+            forEachManaged(ids, entityManager::detach);
+            return rows;
+        });
+    }
+
+    /**
+     * 조건으로 다음 청크의 id를 keyset(id > 마지막 id)으로 찾고, 해당 id 들에만 operation을 실행
+     * id 조회는 트랜잭션 없이 하고, 락을 잡는 수정/삭제만 청크 트랜잭션 안에서 실행
+     * 그 사이에 다른 트랜잭션이 회원을 바꿀 수 있으므로 operation은 id 뿐만 아니라 조건(MemberSearchPredicates.ofBulk)도 다시 걸어야 함
+     * 청크마다 트랜잭션을 커밋해야 하므로 이미 트랜잭션 안에서 호출하면 예외
+     */
+    private BulkOperationResult inChunks(MemberSearchCondition condition, int chunkSize,
+                                         Consumer<BulkOperationProgress> progressListener,
+                                         ToLongFunction<List<Long>> operation) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize는 1 이상이어야 합니다. chunkSize=" + chunkSize);
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("bulk 작업은 청크마다 커밋하므로 트랜잭션 밖에서 호출해야 합니다.");
+        }
+        EntityManager boundEntityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManager.getEntityManagerFactory()); //OSIV
+        if (boundEntityManager != null && boundEntityManager.unwrap(Session.class).isDirty()) {
+            throw new IllegalStateException("영속성 컨텍스트에 flush 하지 않은 변경이 있습니다. bulk 작업의 refresh가 덮어쓰므로 먼저 저장하거나 clear 하세요.");
+        }
+        long start = System.nanoTime();
+        long totalRows = 0;
+        int chunk = 0;
+        Long lastId = null;
+        while (true) {
+            Long after = lastId;
+            List<Long> ids = jpaQueryFactory
+                    .select(member.id)
+                    .from(member)
+                    .leftJoin(member.team, team)
+                    .where(MemberSearchPredicates.of(condition))
+                    .where(after == null ? null : member.id.gt(after))
+                    .orderBy(member.id.asc())
+                    .limit(chunkSize)
+                    .fetch();
+            if (ids.isEmpty()) {
+                break;
+            }
+            long rows = chunkTransaction.execute(status -> operation.applyAsLong(ids));
+            totalRows += rows;
+            lastId = ids.get(ids.size() - 1);
+            progressListener.accept(new BulkOperationProgress(++chunk, rows, totalRows, lastId));
+            if (ids.size() < chunkSize) {
+                break;
+            }
+        }
+        return new BulkOperationResult(totalRows, chunk, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    //bulk 쿼리는 영속성 컨텍스트를 거치지 않으므로, 이미 로딩된(managed) 회원만 찾아서 동기화
+    private void forEachManaged(List<Long> ids, Consumer<Object> action) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Member.class);
+        for (Long id : ids) {
+            Object entity = session.getPersistenceContextInternal().getEntity(session.generateEntityKey(id, persister));
+            if (entity != null) {
+                action.accept(entity);
+            }
+        }
     }
 }
@@ -1,5 +1,10 @@
 package study.querydsl.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import study.querydsl.dto.CursorPage;
+import study.querydsl.dto.MemberCursorSort;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 
@@ -7,4 +12,12 @@ import java.util.List;
 
 public interface MemberRepositoryCustom {
     List<MemberTeamDto> searchMemberTeam(MemberSearchCondition memberTeamDto);
+
+    List<MemberTeamDto> searchMemberTeamFromReadModel(MemberSearchCondition condition);
+
+    Page<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable);
+
+    Slice<MemberTeamDto> searchPageConcurrently(MemberSearchCondition condition, Pageable pageable);
+
+    CursorPage<MemberTeamDto> searchMemberTeamByCursor(MemberSearchCondition condition, MemberCursorSort sort, String cursor, int size);
 }
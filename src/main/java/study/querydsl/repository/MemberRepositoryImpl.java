@@ -1,55 +1,262 @@
 package study.querydsl.repository;
 
-import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.CursorPage;
+import study.querydsl.dto.MemberCursorSort;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-import static io.micrometer.common.util.StringUtils.isEmpty;
+import static org.springframework.util.StringUtils.hasLength;
 import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QMemberTeamView.memberTeamView;
 import static study.querydsl.entity.QTeam.team;
 
+@Transactional(readOnly = true) //조회만 하므로 replica로 라우팅될 수 있음 (DataSourceRoutingConfig)
+@Slf4j
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
+    private final EntityManager entityManager;
     private final JPAQueryFactory queryFactory;
+    private final MemberSearchQueryCache searchQueryCache;
+    private final MemberSearchResultCache searchResultCache;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Executor searchQueryExecutor;
+    private final Duration countTimeout;
+    private final boolean readModelEnabled;
+    private final MemberSqlSearch sqlSearch;
+    private final boolean sqlBackend;
 
-    public MemberRepositoryImpl(EntityManager entityManager) {
+    public MemberRepositoryImpl(EntityManager entityManager,
+                                MemberSearchQueryCache searchQueryCache,
+                                MemberSearchResultCache searchResultCache,
+                                PlatformTransactionManager transactionManager,
+                                @Qualifier("searchQueryExecutor") Executor searchQueryExecutor,
+                                @Value("${app.search.count-timeout:500ms}") Duration countTimeout,
+                                @Value("${app.read-model.enabled:false}") boolean readModelEnabled,
+                                MemberSqlSearch sqlSearch,
+                                @Value("${app.search.backend:jpa}") String backend) {
+        this.entityManager = entityManager;
         this.queryFactory = new JPAQueryFactory(entityManager);
+        this.searchQueryCache = searchQueryCache;
+        this.searchResultCache = searchResultCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.searchQueryExecutor = searchQueryExecutor;
+        this.countTimeout = countTimeout;
+        this.readModelEnabled = readModelEnabled;
+        this.sqlSearch = sqlSearch;
+        if (!"jpa".equals(backend) && !"sql".equals(backend)) {
+            throw new IllegalArgumentException("app.search.backend는 jpa 또는 sql 이어야 합니다. backend=" + backend);
+        }
+        this.sqlBackend = "sql".equals(backend);
     }
 
     @Override//회원명, 팀명, 나이(ageGoe, ageLoe)
     public List<MemberTeamDto> searchMemberTeam(MemberSearchCondition condition) {
+        if (sqlBackend) {
+            return searchResultCache.get(condition, () -> sqlSearch.searchMemberTeam(condition)); //Hibernate 없이 JDBC로 조회
+        }
+        return searchResultCache.get(condition,
+                () -> searchQueryCache.searchMemberTeam(entityManager, condition)); //쿼리 모양별로 미리 만들어둔 JPQL에 값만 바인딩
+    }
+
+    /**
+     * searchMemberTeam과 같은 결과를 member/team join 없이 비정규화 테이블(member_team_view)에서 조회
+     * 읽기 모델은 MemberTeamViewSynchronizer가 갱신할 때만 최신이므로 app.read-model.enabled=true 일 때만 사용할 수 있음
+     */
+    @Override
+    public List<MemberTeamDto> searchMemberTeamFromReadModel(MemberSearchCondition condition) {
+        if (!readModelEnabled) {
+            throw new IllegalStateException("읽기 모델이 꺼져 있습니다. app.read-model.enabled=true 로 설정하세요.");
+        }
         return queryFactory
+                .select(new QMemberTeamDto(memberTeamView.memberId,
+                        memberTeamView.username,
+                        memberTeamView.age,
+                        memberTeamView.teamId,
+                        memberTeamView.teamName))
+                .from(memberTeamView)
+                .where(MemberSearchPredicates.ofReadModel(condition))
+                .fetch();
+    }
+
+    /**
+     * 컨텐츠 쿼리와 count 쿼리를 분리한 페이징
+     * fetchResults()는 deprecated 이고 컨텐츠 쿼리의 join을 그대로 count에 사용하기 때문에 쓰지 않음
+     */
+    @Override
+    public Page<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDto> content = contentQuery(condition)
+                .orderBy(orderBy(pageable.getSort()))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        //첫 페이지나 마지막 페이지의 컨텐츠가 페이지 크기보다 작으면 count 쿼리를 실행하지 않음
+        JPAQuery<Long> countQuery = countQuery(condition);
+        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
+    }
+
+    /**
+     * 컨텐츠 쿼리와 count 쿼리를 각각 다른 스레드의 읽기 전용 트랜잭션(영속성 컨텍스트, 커넥션)에서 동시에 실행
+     * 응답 시간이 두 쿼리 시간의 합이 아니라 더 느린 쪽의 시간이 됨
+     * count가 제한 시간(app.search.count-timeout) 안에 끝나지 않으면 전체 건수를 모르는 Slice를 반환하고, 끝나면 Page를 반환
+     * 별도의 트랜잭션에서 조회하므로 호출한 쪽 트랜잭션에서 커밋하지 않은 변경은 보이지 않음
+     * 컨텐츠와 count가 서로 다른 트랜잭션(스냅샷)이라 그 사이에 커밋된 변경이 있으면 전체 건수와 컨텐츠가 맞지 않을 수 있음
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) //호출한 스레드에서는 커넥션을 잡지 않음
+    public Slice<MemberTeamDto> searchPageConcurrently(MemberSearchCondition condition, Pageable pageable) {
+        long deadline = System.nanoTime() + countTimeout.toNanos();
+        CompletableFuture<List<MemberTeamDto>> contentFuture = CompletableFuture.supplyAsync(
+                () -> readOnlyTransaction.execute(status -> contentQuery(condition)
+                        .orderBy(orderBy(pageable.getSort()))
+                        .offset(pageable.getOffset())
+                        .limit(pageable.getPageSize() + 1L) //한 건 더 조회해서 count 없이도 다음 페이지 여부를 알 수 있게 함
+                        .fetch()),
+                searchQueryExecutor);
+        CompletableFuture<Long> countFuture = CompletableFuture.supplyAsync(
+                () -> readOnlyTransaction.execute(status -> countQuery(condition)
+                        .setHint(SpecHints.HINT_SPEC_QUERY_TIMEOUT, countTimeout.toMillis())
+                        .fetchOne()),
+                searchQueryExecutor);
+
+        List<MemberTeamDto> content = join(contentFuture);
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, pageable.getPageSize()));
+        } else if (pageable.getOffset() == 0 || !content.isEmpty()) {
+            //마지막 페이지면 count 없이 전체 건수를 알 수 있음
+            countFuture.cancel(false);
+            return new PageImpl<>(content, pageable, pageable.getOffset() + content.size());
+        }
+
+        try {
+            Long total = countFuture.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            return new PageImpl<>(content, pageable, total);
+        } catch (TimeoutException e) {
+            countFuture.cancel(false);
+            return new SliceImpl<>(content, pageable, hasNext); //count unknown
+        } catch (ExecutionException e) {
+            log.warn("count query failed, returning page without total", e.getCause());
+            return new SliceImpl<>(content, pageable, hasNext);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new SliceImpl<>(content, pageable, hasNext);
+        }
+    }
+
+    private JPAQuery<MemberTeamDto> contentQuery(MemberSearchCondition condition) {
+        JPAQuery<MemberTeamDto> query = queryFactory
                 .select(new QMemberTeamDto(member.id,
                         member.username,
                         member.age,
                         team.id,
                         team.name))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe()))
-                .fetch();
+                .from(member);
+        if (hasLength(condition.getTeamName())) {
+            query.join(member.team, team); //left join이면 member를 먼저 읽어야 해서 idx_team_name을 쓸 수 없음
+        } else {
+            query.leftJoin(member.team, team);
+        }
+        return query
+                .where(MemberSearchPredicates.of(condition));
     }
 
-    private BooleanExpression usernameEq(String username) {
-        return isEmpty(username) ? null : member.username.eq(username);
+    /**
+     * Pageable의 정렬 + member.id 오름차순 - 정렬 값이 같은 행의 순서도 고정해서 페이지 경계에서 행이 중복되거나 빠지지 않게 함
+     * 정렬할 수 있는 속성은 MemberTeamDto의 필드 이름 (memberId, username, age, teamId, teamName)
+     */
+    private static OrderSpecifier<?>[] orderBy(Sort sort) {
+        List<OrderSpecifier<?>> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            ComparableExpressionBase<?> property = switch (order.getProperty()) {
+                case "memberId" -> member.id;
+                case "username" -> member.username;
+                case "age" -> member.age;
+                case "teamId" -> team.id;
+                case "teamName" -> team.name;
+                default -> throw new IllegalArgumentException("정렬할 수 없는 속성입니다. sort=" + order.getProperty());
+            };
+            orders.add(order.isAscending() ? property.asc() : property.desc());
+        }
+        orders.add(member.id.asc());
+        return orders.toArray(new OrderSpecifier<?>[0]);
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return isEmpty(teamName) ? null : team.name.eq(teamName);
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
     }
 
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe == null ? null : member.age.goe(ageGoe);
+    //left join은 member 건수를 바꾸지 않으므로 팀명 조건이 없으면 count 쿼리에서 join을 제거
+    private JPAQuery<Long> countQuery(MemberSearchCondition condition) {
+        JPAQuery<Long> countQuery = queryFactory
+                .select(member.count())
+                .from(member);
+        if (hasLength(condition.getTeamName())) {
+            countQuery.join(member.team, team); //team.name 조건이 있으면 left join과 inner join의 결과가 같음
+        }
+        return countQuery
+                .where(MemberSearchPredicates.of(condition));
     }
 
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe == null ? null : member.age.loe(ageLoe);
+    /**
+     * 커서(keyset) 페이징 - offset 없이 마지막으로 읽은 정렬 키 이후의 행만 조회
+     * size + 1 건을 조회해서 다음 페이지 존재 여부를 판단하므로 count 쿼리가 필요 없음
+     */
+    @Override
+    public CursorPage<MemberTeamDto> searchMemberTeamByCursor(MemberSearchCondition condition, MemberCursorSort sort, String cursor, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size는 1 이상이어야 합니다. size=" + size);
+        }
+        MemberTeamCursor after = MemberTeamCursor.decode(cursor, sort);
+
+        List<MemberTeamDto> content = contentQuery(condition)
+                .where(after == null ? null : after.after())
+                .orderBy(MemberTeamCursor.orderBy(sort))
+                .limit(size + 1)
+                .fetch();
+
+        if (content.size() <= size) {
+            return new CursorPage<>(content, null);
+        }
+        List<MemberTeamDto> page = new ArrayList<>(content.subList(0, size));
+        return new CursorPage<>(page, MemberTeamCursor.of(sort, page.get(size - 1)).encode());
     }
 }
@@ -0,0 +1,23 @@
+package study.querydsl.repository;
+
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.UsernameMatch;
+
+import static org.springframework.util.StringUtils.hasLength;
+
+/**
+ * 결과 캐시의 키로 쓰는 정규화된 검색 조건 - 빈 문자열은 조건이 없는 것(null)과 같게 취급
+ */
+record MemberSearchKey(String username, UsernameMatch usernameMatch, String teamName, Integer ageGoe, Integer ageLoe) {
+
+    static MemberSearchKey of(MemberSearchCondition condition) {
+        boolean hasUsername = hasLength(condition.getUsername());
+        return new MemberSearchKey(
+                hasUsername ? condition.getUsername() : null,
+                hasUsername ? MemberSearchPredicates.usernameMatch(condition) : null,
+                hasLength(condition.getTeamName()) ? condition.getTeamName() : null,
+                condition.getAgeGoe(),
+                condition.getAgeLoe()
+        );
+    }
+}
@@ -0,0 +1,89 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.StringPath;
+import com.querydsl.jpa.JPAExpressions;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.UsernameMatch;
+
+import static org.springframework.util.StringUtils.hasLength;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QMemberTeamView.memberTeamView;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 회원 검색 조건을 Where절 파라미터(null이면 무시되는 BooleanExpression)로 만드는 공통 헬퍼
+ * searchByWhereParameter가 원래 쓰던 조립 방식을 그대로 모아서 여러 쿼리(조회, count, 벌크, 읽기 모델)에서 재사용함
+ * BooleanBuilder(searchByBuilder)보다 빠르다고 측정해서 고른 것은 아님 (기록한 측정값 없음, 필요하면 src/jmh 의 PredicateBenchmark 로 측정)
+ * teamNameEq는 team 별칭을 쓰므로 쿼리에서 member.team을 team으로 join 해야 함
+ */
+public final class MemberSearchPredicates {
+
+    private MemberSearchPredicates() {
+    }
+
+    //where(...)에 그대로 넘기면 null인 조건은 무시됨
+    public static Predicate[] of(MemberSearchCondition condition) {
+        return new Predicate[]{
+                usernameMatches(condition.getUsername(), usernameMatch(condition)),
+                teamNameEq(condition.getTeamName()),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe())
+        };
+    }
+
+    //같은 조건을 비정규화 테이블(member_team_view)의 컬럼으로 만듦, join이 필요 없음
+    public static Predicate[] ofReadModel(MemberSearchCondition condition) {
+        return new Predicate[]{
+                usernameMatches(memberTeamView.username, condition.getUsername(), usernameMatch(condition)),
+                hasLength(condition.getTeamName()) ? memberTeamView.teamName.eq(condition.getTeamName()) : null,
+                condition.getAgeGoe() == null ? null : memberTeamView.age.goe(condition.getAgeGoe()),
+                condition.getAgeLoe() == null ? null : memberTeamView.age.loe(condition.getAgeLoe())
+        };
+    }
+
+    //같은 조건을 join 없이 만듦 - bulk update/delete는 join을 쓸 수 없으므로 팀명 조건은 team.id 서브쿼리로 바꿈
+    public static Predicate[] ofBulk(MemberSearchCondition condition) {
+        return new Predicate[]{
+                usernameMatches(condition.getUsername(), usernameMatch(condition)),
+                hasLength(condition.getTeamName())
+                        ? member.team.id.in(JPAExpressions.select(team.id).from(team).where(team.name.eq(condition.getTeamName())))
+                        : null,
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe())
+        };
+    }
+
+    public static UsernameMatch usernameMatch(MemberSearchCondition condition) {
+        return condition.getUsernameMatch() == null ? UsernameMatch.EXACT : condition.getUsernameMatch();
+    }
+
+    //PREFIX는 like 'x%' 라서 idx_member_username을 탈 수 있지만 CONTAINS(like '%x%')는 전체를 읽음 (MemberUsernameIndex 참고)
+    public static BooleanExpression usernameMatches(String username, UsernameMatch match) {
+        return usernameMatches(member.username, username, match);
+    }
+
+    private static BooleanExpression usernameMatches(StringPath path, String username, UsernameMatch match) {
+        if (!hasLength(username)) {
+            return null;
+        }
+        return switch (match) {
+            case EXACT -> path.eq(username);
+            case PREFIX -> path.startsWith(username);
+            case CONTAINS -> path.contains(username);
+        };
+    }
+
+    public static BooleanExpression teamNameEq(String teamName) {
+        return hasLength(teamName) ? team.name.eq(teamName) : null;
+    }
+
+    public static BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe == null ? null : member.age.goe(ageGoe);
+    }
+
+    public static BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe == null ? null : member.age.loe(ageLoe);
+    }
+}
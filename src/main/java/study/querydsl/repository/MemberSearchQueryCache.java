@@ -0,0 +1,123 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.dto.UsernameMatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.springframework.util.StringUtils.hasLength;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 회원 검색 쿼리 모양(MemberSearchShape)별로 JPQL을 한 번만 만들어서 재사용하는 캐시
+ * 값 대신 Param 자리표시자로 쿼리를 만들고 직렬화한 JPQL을 보관하므로, 요청마다 값만 바인딩하면 됨
+ * JPQL 문자열이 모양별로 고정되기 때문에 하이버네이트의 쿼리 plan 캐시도 항상 적중함
+ */
+@Component
+public class MemberSearchQueryCache {
+
+    private static final Param<String> USERNAME = new Param<>(String.class, "username");
+    private static final Param<String> TEAM_NAME = new Param<>(String.class, "teamName");
+    private static final Param<Integer> AGE_GOE = new Param<>(Integer.class, "ageGoe");
+    private static final Param<Integer> AGE_LOE = new Param<>(Integer.class, "ageLoe");
+
+    private static final QMemberTeamDto PROJECTION = new QMemberTeamDto(
+            member.id,
+            member.username,
+            member.age,
+            team.id,
+            team.name
+    );
+
+    private final MemberUsernameIndex usernameIndex;
+    private final Map<Integer, String> jpqlByShape = new ConcurrentHashMap<>();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public MemberSearchQueryCache(MemberUsernameIndex usernameIndex) {
+        this.usernameIndex = usernameIndex;
+    }
+
+    public List<MemberTeamDto> searchMemberTeam(EntityManager entityManager, MemberSearchCondition condition) {
+        if (hasLength(condition.getUsername()) && MemberSearchPredicates.usernameMatch(condition) != UsernameMatch.EXACT) {
+            return usernameIndex.searchMemberTeam(condition); //회원명 접두사/부분 문자열 검색은 인덱스에서 찾은 id로 조회
+        }
+        int shape = MemberSearchShape.of(condition);
+        Query query = entityManager.createQuery(jpql(shape));
+
+        //Param은 where절에 나온 순서대로 ?1, ?2 ... 위치 파라미터로 직렬화됨
+        int position = 1;
+        if (MemberSearchShape.has(shape, MemberSearchShape.USERNAME)) {
+            query.setParameter(position++, condition.getUsername());
+        }
+        if (MemberSearchShape.has(shape, MemberSearchShape.TEAM_NAME)) {
+            query.setParameter(position++, condition.getTeamName());
+        }
+        if (MemberSearchShape.has(shape, MemberSearchShape.AGE_GOE)) {
+            query.setParameter(position++, condition.getAgeGoe());
+        }
+        if (MemberSearchShape.has(shape, MemberSearchShape.AGE_LOE)) {
+            query.setParameter(position, condition.getAgeLoe());
+        }
+
+        List<?> rows = query.getResultList();
+        List<MemberTeamDto> result = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            result.add(PROJECTION.newInstance((Object[]) row));
+        }
+        return result;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    private String jpql(int shape) {
+        String jpql = jpqlByShape.get(shape);
+        if (jpql != null) {
+            hitCount.increment();
+            return jpql;
+        }
+        missCount.increment();
+        return jpqlByShape.computeIfAbsent(shape, MemberSearchQueryCache::serialize);
+    }
+
+    private static String serialize(int shape) {
+        JPAQuery<MemberTeamDto> template = new JPAQuery<Void>()
+                .select(PROJECTION)
+                .from(member);
+        //팀명 조건이 있으면 결과가 같은 inner join으로 바꿔서, DB가 team(idx_team_name)부터 읽도록 join 순서를 정할 수 있게 함
+        if (MemberSearchShape.has(shape, MemberSearchShape.TEAM_NAME)) {
+            template.join(member.team, team);
+        } else {
+            template.leftJoin(member.team, team);
+        }
+        template.where(
+                MemberSearchShape.has(shape, MemberSearchShape.USERNAME) ? member.username.eq(USERNAME) : null,
+                MemberSearchShape.has(shape, MemberSearchShape.TEAM_NAME) ? team.name.eq(TEAM_NAME) : null,
+                MemberSearchShape.has(shape, MemberSearchShape.AGE_GOE) ? member.age.goe(AGE_GOE) : null,
+                MemberSearchShape.has(shape, MemberSearchShape.AGE_LOE) ? member.age.loe(AGE_LOE) : null
+        );
+        JPQLSerializer serializer = new JPQLSerializer(HQLTemplates.DEFAULT);
+        serializer.serialize(template.getMetadata(), false, null);
+        return serializer.toString();
+    }
+}
@@ -0,0 +1,178 @@
+package study.querydsl.repository;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.config.ReplicaLagMonitor;
+import study.querydsl.config.SqlStatement;
+import study.querydsl.config.SqlStatementListener;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * searchMemberTeam 결과를 정규화된 검색 조건별로 보관하는 크기/TTL 제한 캐시
+ *
+ * member, team 테이블을 변경하는 SQL이 실행되면 캐시 전체를 무효화함
+ * 하이버네이트가 실행하는 SQL 단위로 감지하기 때문에 persist 뿐 아니라 벌크 update/delete, JPA 네이티브 쿼리도 감지함
+ * 팀명 변경처럼 어떤 조건의 결과가 바뀌는지 알 수 없는 변경이 있으므로 키 단위가 아니라 전체를 무효화함
+ *
+ * 트랜잭션 중에 변경된 데이터가 캐시에 들어가지 않도록
+ * 1. 쓰기 트랜잭션 안에서는 캐시를 사용하지 않고
+ * 2. 변경 SQL이 실행된 트랜잭션이 끝날 때(커밋/롤백) 한 번 더 무효화하고
+ * 3. 조회하는 동안 무효화가 일어났으면 조회 결과를 캐시에 넣지 않음
+ * 4. replica를 사용하면(DataSourceRoutingConfig) 무효화 후 max-lag 동안은 조회 결과를 캐시에 넣지 않음 (지연된 replica 값이 TTL 동안 남지 않도록)
+ *
+ * 이 JVM의 SqlStatementInspector를 거친 SQL만 감지하는 best-effort 캐시로, 단일 인스턴스를 전제로 함
+ * 다른 인스턴스나 하이버네이트를 거치지 않는 JDBC로 member/team을 바꾸면 TTL(app.search.result-cache.ttl)이 지날 때까지 이전 결과가 조회될 수 있음
+ * 여러 인스턴스로 운영하거나 바로 반영되어야 하는 조회는 max-size를 0으로 해서 끄고 사용해야 함
+ */
+@Component
+public class MemberSearchResultCache implements SqlStatementListener {
+
+    private static final Set<String> SOURCE_TABLES = Set.of("member", "team");
+    private static final Object SYNCHRONIZATION_KEY = new Object();
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long refillDelayNanos;
+    private volatile long lastInvalidatedAt;
+    private final Map<MemberSearchKey, Entry> entries;
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    @Autowired
+    public MemberSearchResultCache(@Value("${app.search.result-cache.max-size:1000}") int maxSize,
+                                   @Value("${app.search.result-cache.ttl:30s}") Duration ttl,
+                                   ObjectProvider<ReplicaLagMonitor> replicaLagMonitor) {
+        this(maxSize, ttl, replicaLagMonitor.stream().map(ReplicaLagMonitor::getMaxLag).findFirst().orElse(Duration.ZERO));
+    }
+
+    MemberSearchResultCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, Duration.ZERO);
+    }
+
+    MemberSearchResultCache(int maxSize, Duration ttl, Duration refillDelay) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.refillDelayNanos = refillDelay.toNanos();
+        this.lastInvalidatedAt = System.nanoTime() - refillDelayNanos;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) { //access-order: 가장 오래 사용하지 않은 항목부터 제거
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<MemberSearchKey, Entry> eldest) {
+                return size() > MemberSearchResultCache.this.maxSize;
+            }
+        };
+    }
+
+    public List<MemberTeamDto> get(MemberSearchCondition condition, Supplier<List<MemberTeamDto>> loader) {
+        if (maxSize <= 0 || !isCacheable()) {
+            return loader.get();
+        }
+        MemberSearchKey key = MemberSearchKey.of(condition);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.isExpired(System.nanoTime())) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry != null) {
+            hitCount.increment();
+            return copyOf(entry.result);
+        }
+
+        missCount.increment();
+        long loadedGeneration = generation.get();
+        long loadStartedAt = System.nanoTime();
+        List<MemberTeamDto> result = loader.get();
+        synchronized (entries) {
+            if (generation.get() == loadedGeneration && loadStartedAt - lastInvalidatedAt >= refillDelayNanos) {
+                entries.put(key, new Entry(copyOf(result), System.nanoTime() + ttlNanos));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void onStatement(SqlStatement statement) {
+        String table = statement.getMutatedTable();
+        if (table == null || !SOURCE_TABLES.contains(table)) {
+            return;
+        }
+        invalidateAll();
+        invalidateAfterCompletion();
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            lastInvalidatedAt = System.nanoTime();
+            entries.clear();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private boolean isCacheable() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    //커밋 전에 다른 스레드가 이전 데이터를 다시 캐시에 넣었을 수 있으므로 트랜잭션 종료 시점에 한 번 더 무효화
+    private void invalidateAfterCompletion() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(SYNCHRONIZATION_KEY)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(SYNCHRONIZATION_KEY, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(SYNCHRONIZATION_KEY);
+                invalidateAll();
+            }
+        });
+    }
+
+    //MemberTeamDto는 setter가 있는 가변 객체이므로 캐시 안의 객체를 그대로 내보내지 않음
+    private static List<MemberTeamDto> copyOf(List<MemberTeamDto> source) {
+        List<MemberTeamDto> copy = new ArrayList<>(source.size());
+        for (MemberTeamDto dto : source) {
+            copy.add(new MemberTeamDto(dto.getMemberId(), dto.getUsername(), dto.getAge(), dto.getTeamId(), dto.getTeamName()));
+        }
+        return copy;
+    }
+
+    private record Entry(List<MemberTeamDto> result, long expiresAt) {
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package study.querydsl.repository;
+
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.util.StringJoiner;
+
+import static org.springframework.util.StringUtils.hasLength;
+
+/**
+ * 검색 조건 4개(회원명, 팀명, ageGoe, ageLoe)의 존재 여부를 비트로 표현한 쿼리 모양
+ * 조건이 4개이므로 만들어질 수 있는 쿼리 모양은 16가지
+ */
+public final class MemberSearchShape {
+
+    public static final int USERNAME = 1;
+    public static final int TEAM_NAME = 1 << 1;
+    public static final int AGE_GOE = 1 << 2;
+    public static final int AGE_LOE = 1 << 3;
+    public static final int SHAPE_COUNT = 1 << 4;
+
+    private MemberSearchShape() {
+    }
+
+    public static int of(MemberSearchCondition condition) {
+        int shape = 0;
+        if (hasLength(condition.getUsername())) {
+            shape |= USERNAME;
+        }
+        if (hasLength(condition.getTeamName())) {
+            shape |= TEAM_NAME;
+        }
+        if (condition.getAgeGoe() != null) {
+            shape |= AGE_GOE;
+        }
+        if (condition.getAgeLoe() != null) {
+            shape |= AGE_LOE;
+        }
+        return shape;
+    }
+
+    public static boolean has(int shape, int condition) {
+        return (shape & condition) != 0;
+    }
+
+    //메트릭 태그 등에 쓰기 위한 이름 ex) "username+ageGoe", 조건이 없으면 "none"
+    public static String name(int shape) {
+        if (shape == 0) {
+            return "none";
+        }
+        StringJoiner joiner = new StringJoiner("+");
+        if (has(shape, USERNAME)) {
+            joiner.add("username");
+        }
+        if (has(shape, TEAM_NAME)) {
+            joiner.add("teamName");
+        }
+        if (has(shape, AGE_GOE)) {
+            joiner.add("ageGoe");
+        }
+        if (has(shape, AGE_LOE)) {
+            joiner.add("ageLoe");
+        }
+        return joiner.toString();
+    }
+}
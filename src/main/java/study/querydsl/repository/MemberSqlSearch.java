@@ -0,0 +1,87 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.sql.SQLQuery;
+import com.querydsl.sql.SQLQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.dto.UsernameMatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.util.StringUtils.hasLength;
+import static study.querydsl.sql.SMember.member;
+import static study.querydsl.sql.STeam.team;
+
+/**
+ * searchMemberTeam을 Hibernate를 거치지 않고 querydsl-sql(JDBC)로 조회 (app.search.backend=sql)
+ * JPQL 파싱/SQL 변환/영속성 컨텍스트를 거치지 않고 ResultSet을 바로 MemberTeamDto로 만듦
+ * 비교 결과는 src/jmh 의 SearchBackendBenchmark 로 확인할 수 있음
+ */
+@Component
+@Transactional(readOnly = true) //SpringConnectionProvider는 트랜잭션에 묶인 커넥션만 사용할 수 있음
+public class MemberSqlSearch {
+
+    private final SQLQueryFactory sqlQueryFactory;
+    private final EntityManager entityManager;
+    private final MemberUsernameIndex usernameIndex;
+
+    public MemberSqlSearch(SQLQueryFactory sqlQueryFactory, EntityManager entityManager, MemberUsernameIndex usernameIndex) {
+        this.sqlQueryFactory = sqlQueryFactory;
+        this.entityManager = entityManager;
+        this.usernameIndex = usernameIndex;
+    }
+
+    public List<MemberTeamDto> searchMemberTeam(MemberSearchCondition condition) {
+        //JPQL과 달리 auto flush가 일어나지 않으므로 같은 트랜잭션에서 변경한 엔티티가 보이도록 직접 flush
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            entityManager.flush();
+        }
+
+        UsernameMatch match = MemberSearchPredicates.usernameMatch(condition);
+        Set<Long> ids = hasLength(condition.getUsername()) ? usernameIndex.find(match, condition.getUsername()) : null;
+        if (ids != null && ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        SQLQuery<MemberTeamDto> query = sqlQueryFactory
+                .select(new QMemberTeamDto(member.memberId,
+                        member.username,
+                        member.age,
+                        team.teamId,
+                        team.name))
+                .from(member);
+        if (hasLength(condition.getTeamName())) {
+            query.join(team).on(member.teamId.eq(team.teamId));
+        } else {
+            query.leftJoin(team).on(member.teamId.eq(team.teamId));
+        }
+        return query
+                .where(ids == null ? null : member.memberId.in(ids))
+                .where(predicates(condition, match))
+                .fetch();
+    }
+
+    //MemberSearchPredicates.of 와 같은 조건을 테이블 컬럼으로 만듦
+    private static Predicate[] predicates(MemberSearchCondition condition, UsernameMatch match) {
+        String username = condition.getUsername();
+        return new Predicate[]{
+                !hasLength(username) ? null : switch (match) {
+                    case EXACT -> member.username.eq(username);
+                    case PREFIX -> member.username.startsWith(username);
+                    case CONTAINS -> member.username.contains(username);
+                },
+                hasLength(condition.getTeamName()) ? team.name.eq(condition.getTeamName()) : null,
+                condition.getAgeGoe() == null ? null : member.age.goe(condition.getAgeGoe()),
+                condition.getAgeLoe() == null ? null : member.age.loe(condition.getAgeLoe())
+        };
+    }
+}
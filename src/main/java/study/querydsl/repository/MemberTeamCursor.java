@@ -0,0 +1,75 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import study.querydsl.dto.MemberCursorSort;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 커서 토큰 = 마지막으로 읽은 행의 정렬 키를 "정렬기준:값..." 형태로 만들고 Base64(URL-safe)로 인코딩한 값
+ * offset 대신 정렬 키보다 뒤에 있는 행부터 읽기(seek) 때문에 페이지가 깊어져도 비용이 일정함
+ */
+class MemberTeamCursor {
+
+    private static final String DELIMITER = ":";
+
+    private final MemberCursorSort sort;
+    private final Long id;
+    private final Integer age;
+
+    private MemberTeamCursor(MemberCursorSort sort, Long id, Integer age) {
+        this.sort = sort;
+        this.id = id;
+        this.age = age;
+    }
+
+    static MemberTeamCursor of(MemberCursorSort sort, MemberTeamDto last) {
+        return new MemberTeamCursor(sort, last.getMemberId(), last.getAge());
+    }
+
+    static MemberTeamCursor decode(String token, MemberCursorSort sort) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            String[] values = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(DELIMITER);
+            if (MemberCursorSort.valueOf(values[0]) != sort) {
+                throw new IllegalArgumentException("정렬 기준이 다른 커서입니다. sort=" + sort);
+            }
+            return switch (sort) {
+                case ID -> new MemberTeamCursor(sort, Long.valueOf(values[1]), null);
+                case AGE -> new MemberTeamCursor(sort, Long.valueOf(values[2]), Integer.valueOf(values[1]));
+            };
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다. cursor=" + token, e);
+        }
+    }
+
+    static OrderSpecifier<?>[] orderBy(MemberCursorSort sort) {
+        return switch (sort) {
+            case ID -> new OrderSpecifier<?>[]{member.id.asc()};
+            case AGE -> new OrderSpecifier<?>[]{member.age.asc(), member.id.asc()};
+        };
+    }
+
+    //(age, id) > (:age, :id) 를 풀어쓴 조건
+    BooleanExpression after() {
+        return switch (sort) {
+            case ID -> member.id.gt(id);
+            case AGE -> member.age.gt(age).or(member.age.eq(age).and(member.id.gt(id)));
+        };
+    }
+
+    String encode() {
+        String raw = switch (sort) {
+            case ID -> sort + DELIMITER + id;
+            case AGE -> sort + DELIMITER + age + DELIMITER + id;
+        };
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,76 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * member_team_view 전체 재생성과 원본(member, team)과의 일치 여부 검사
+ * 읽기 모델을 처음 켜거나, 이벤트를 거치지 않는 변경(벌크 쿼리, 직접 실행한 SQL) 뒤에 사용
+ */
+@Repository
+public class MemberTeamViewMaintenance {
+
+    static final String DELETE_ALL_SQL = "delete from member_team_view";
+    static final String INSERT_ALL_SQL = """
+            insert into member_team_view (member_id, username, age, team_id, team_name)
+            select m.member_id, m.username, m.age, t.team_id, t.name
+            from member m left join team t on t.team_id = m.team_id""";
+    private static final String MISSING_SQL = """
+            select count(*) from member m
+            where not exists (select 1 from member_team_view v where v.member_id = m.member_id)""";
+    private static final String ORPHAN_SQL = """
+            select count(*) from member_team_view v
+            where not exists (select 1 from member m where m.member_id = v.member_id)""";
+    private static final String MISMATCHED_SQL = """
+            select count(*) from member_team_view v
+            join member m on m.member_id = v.member_id
+            left join team t on t.team_id = m.team_id
+            where v.username is distinct from m.username
+               or v.age <> m.age
+               or v.team_id is distinct from t.team_id
+               or v.team_name is distinct from t.name""";
+
+    private final EntityManager entityManager;
+
+    public MemberTeamViewMaintenance(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    //재생성하는 동안 다른 트랜잭션은 커밋 전까지 이전 읽기 모델을 봄
+    @Transactional
+    public long rebuild() {
+        execute(DELETE_ALL_SQL);
+        return execute(INSERT_ALL_SQL);
+    }
+
+    @Transactional(readOnly = true)
+    public ConsistencyReport verify() {
+        return new ConsistencyReport(count(MISSING_SQL), count(ORPHAN_SQL), count(MISMATCHED_SQL));
+    }
+
+    //변경 테이블을 알려주지 않으면 하이버네이트가 2차 캐시(Team) 전체를 비움
+    private int execute(String sql) {
+        return entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("member_team_view")
+                .executeUpdate();
+    }
+
+    private long count(String sql) {
+        return ((Number) entityManager.createNativeQuery(sql).getSingleResult()).longValue();
+    }
+
+    /**
+     * @param missing    member에는 있지만 읽기 모델에 없는 행 수
+     * @param orphaned   읽기 모델에만 남아있는 행 수
+     * @param mismatched 값(회원명, 나이, 팀)이 다른 행 수
+     */
+    public record ConsistencyReport(long missing, long orphaned, long mismatched) {
+
+        public boolean isConsistent() {
+            return missing == 0 && orphaned == 0 && mismatched == 0;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package study.querydsl.repository;
+
+import jakarta.annotation.PostConstruct;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * EntityChangeCollector가 모아준 member, team 의 변경으로 커밋 직전에 member_team_view 를 갱신
+ *
+ * 1. 이벤트가 발생할 때는 바뀐 회원 id, 이름이 바뀐(삭제된) 팀 id만 모아둠
+ * 2. 커밋 직전(flush 이후)에 같은 커넥션으로 회원은 delete 후 insert-select, 팀은 team_name만 update
+ * 그래서 읽기 모델 갱신이 원래 변경과 같은 트랜잭션으로 커밋/롤백됨
+ *
+ * 한 트랜잭션의 변경이 max-pending-changes 를 넘으면(대량 insert 등) 커밋 직전에 전체를 다시 만듦
+ * 갱신 SQL은 하이버네이트의 StatementPreparer로 실행하므로 StatementInspector(SqlStatementListener), SQL 로그, 통계에 포함됨
+ *
+ * 엔티티를 거치지 않는 변경은 이벤트가 없으므로, 벌크 JPQL은 EntityChangeCollector.bulkChange로 실행하고
+ * 네이티브 쿼리 등은 MemberTeamViewMaintenance.rebuild()로 다시 만들어야 함
+ */
+@Component
+@ConditionalOnProperty(name = "app.read-model.enabled", havingValue = "true")
+public class MemberTeamViewSynchronizer implements EntityChangeSubscriber<MemberTeamViewSynchronizer.Change> {
+
+    private static final int CHUNK_SIZE = 1_000;
+
+    static final String INSERT_MEMBERS_SQL = """
+            insert into member_team_view (member_id, username, age, team_id, team_name)
+            select m.member_id, m.username, m.age, t.team_id, t.name
+            from member m left join team t on t.team_id = m.team_id
+            where m.member_id in (%s)""";
+    private static final String DELETE_MEMBERS_SQL = "delete from member_team_view where member_id in (%s)";
+    private static final String UPDATE_TEAM_NAME_SQL = """
+            update member_team_view
+            set team_name = (select t.name from team t where t.team_id = ?)
+            where team_id = ?""";
+    private static final String DETACH_TEAM_SQL = "update member_team_view set team_id = null, team_name = null where team_id = ?";
+
+    private final EntityChangeCollector changeCollector;
+    private final int maxPendingChanges;
+
+    public MemberTeamViewSynchronizer(EntityChangeCollector changeCollector,
+                                      @Value("${app.read-model.max-pending-changes:10000}") int maxPendingChanges) {
+        this.changeCollector = changeCollector;
+        this.maxPendingChanges = maxPendingChanges;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        changeCollector.subscribe(this);
+    }
+
+    @Override
+    public int maxPendingChanges() {
+        return maxPendingChanges;
+    }
+
+    @Override
+    public void onInsert(PostInsertEvent event, Consumer<Change> changes) {
+        if (event.getEntity() instanceof Member) {
+            changes.accept(new Change(Target.MEMBER, (Long) event.getId()));
+        }
+    }
+
+    @Override
+    public void onUpdate(PostUpdateEvent event, Consumer<Change> changes) {
+        if (event.getEntity() instanceof Member) {
+            changes.accept(new Change(Target.MEMBER, (Long) event.getId()));
+        } else if (event.getEntity() instanceof Team && isNameChanged(event)) {
+            changes.accept(new Change(Target.RENAMED_TEAM, (Long) event.getId()));
+        }
+    }
+
+    @Override
+    public void onDelete(PostDeleteEvent event, Consumer<Change> changes) {
+        if (event.getEntity() instanceof Member) {
+            changes.accept(new Change(Target.MEMBER, (Long) event.getId())); //delete 후 insert-select 할 행이 없으므로 삭제만 됨
+        } else if (event.getEntity() instanceof Team) {
+            changes.accept(new Change(Target.DELETED_TEAM, (Long) event.getId()));
+        }
+    }
+
+    @Override
+    public void onBulkChange(List<MemberBulkChange> bulkChanges, Consumer<Change> changes) {
+        bulkChanges.forEach(bulkChange -> changes.accept(new Change(Target.MEMBER, bulkChange.memberId())));
+    }
+
+    private static boolean isNameChanged(PostUpdateEvent event) {
+        int[] dirtyProperties = event.getDirtyProperties();
+        if (dirtyProperties == null) {
+            return true; //dirty 체크 정보가 없으면(merge 등) 바뀐 것으로 간주
+        }
+        String[] propertyNames = event.getPersister().getPropertyNames();
+        for (int index : dirtyProperties) {
+            if ("name".equals(propertyNames[index])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //원래 변경과 같은 트랜잭션(커넥션)에서 갱신
+    @Override
+    public void beforeCommit(EventSource session, PendingChanges<Change> changes) {
+        if (changes.isOverflowed()) {
+            //바뀐 회원을 모두 알 수 없으므로 전체를 다시 만듦 (팀 변경도 함께 반영됨)
+            execute(session, MemberTeamViewMaintenance.DELETE_ALL_SQL, List.of());
+            execute(session, MemberTeamViewMaintenance.INSERT_ALL_SQL, List.of());
+            return;
+        }
+        Set<Long> changedMemberIds = new LinkedHashSet<>();
+        Set<Long> renamedTeamIds = new LinkedHashSet<>();
+        Set<Long> deletedTeamIds = new LinkedHashSet<>();
+        for (Change change : changes.changes()) {
+            switch (change.target()) {
+                case MEMBER -> changedMemberIds.add(change.id());
+                case RENAMED_TEAM -> renamedTeamIds.add(change.id());
+                case DELETED_TEAM -> deletedTeamIds.add(change.id());
+            }
+        }
+        List<Long> memberIds = new ArrayList<>(changedMemberIds);
+        for (int from = 0; from < memberIds.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = memberIds.subList(from, Math.min(from + CHUNK_SIZE, memberIds.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            execute(session, DELETE_MEMBERS_SQL.formatted(placeholders), chunk);
+            execute(session, INSERT_MEMBERS_SQL.formatted(placeholders), chunk);
+        }
+        for (Long teamId : renamedTeamIds) {
+            execute(session, UPDATE_TEAM_NAME_SQL, List.of(teamId, teamId));
+        }
+        for (Long teamId : deletedTeamIds) {
+            execute(session, DETACH_TEAM_SQL, List.of(teamId));
+        }
+    }
+
+    //Connection을 직접 쓰지 않고 세션의 JdbcCoordinator로 실행해서 하이버네이트가 실행하는 다른 SQL과 같은 경로를 지나게 함
+    private static void execute(EventSource session, String sql, List<Long> parameters) {
+        JdbcCoordinator jdbcCoordinator = session.getJdbcCoordinator();
+        PreparedStatement statement = jdbcCoordinator.getStatementPreparer().prepareStatement(sql);
+        try {
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setLong(i + 1, parameters.get(i));
+            }
+            jdbcCoordinator.getResultSetReturn().executeUpdate(statement, sql);
+        } catch (SQLException e) {
+            throw session.getJdbcServices().getSqlExceptionHelper().convert(e, "member_team_view 갱신 실패", sql);
+        } finally {
+            jdbcCoordinator.getLogicalConnection().getResourceRegistry().release(statement);
+            jdbcCoordinator.afterStatementExecution();
+        }
+    }
+
+    enum Target {
+        MEMBER, RENAMED_TEAM, DELETED_TEAM
+    }
+
+    record Change(Target target, long id) {
+    }
+}
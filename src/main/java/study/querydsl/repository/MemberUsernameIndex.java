@@ -0,0 +1,291 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.dto.UsernameMatch;
+import study.querydsl.entity.Member;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.springframework.util.StringUtils.hasLength;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 회원명 접두사(PREFIX)/부분 문자열(CONTAINS) 검색을 위한 메모리 인덱스 (UsernameIndex)
+ *
+ * 1. 애플리케이션이 준비되면(ApplicationReadyEvent) member 테이블을 스트리밍으로 읽어서 인덱스를 만들고
+ * 2. 이후 Member 저장/수정/삭제는 EntityChangeCollector가 트랜잭션별로 모아준 변경을 커밋에 성공하면 반영함
+ * 3. 검색할 때는 인덱스에서 회원 id를 먼저 찾아서 in 절로 조회하고,
+ *    일치하는 회원이 max-matches 를 넘거나 인덱스를 믿을 수 없으면(준비 전, stale) like 로 조회함
+ * 4. 이벤트가 없는 변경(다른 인스턴스, 네이티브 SQL, querydsl-sql/JDBC)은 주기적으로(rebuild-interval) 새로 만들어서 맞춤
+ *
+ * in 절로 조회할 때도 like 조건을 같이 걸어서, 인덱스가 잠깐 DB와 달라도 잘못된 회원이 조회되지는 않음
+ * 반대로 인덱스에 없는 회원은 다음 rebuild 전까지 PREFIX/CONTAINS 검색에서 빠질 수 있음
+ *
+ * 한 트랜잭션의 변경이 max-pending-changes 를 넘으면(대량 insert 등) 커밋 후 stale 로 표시하고 다시 만듦
+ */
+@Slf4j
+@Component
+public class MemberUsernameIndex implements EntityChangeSubscriber<MemberUsernameIndex.Change> {
+
+    private static final int BUILD_FETCH_SIZE = 1_000;
+
+    private final EntityChangeCollector changeCollector;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate primaryTransaction;
+    private final int maxMatches;
+    private final int maxPendingChanges;
+
+    private UsernameIndex index = new UsernameIndex(); //lock 안에서만 읽고 교체
+    private List<Change> committedDuringRebuild; //rebuild 중에 커밋된 변경, 새 인덱스에 다시 반영
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+    private volatile boolean stale;
+
+    public MemberUsernameIndex(EntityChangeCollector changeCollector,
+                               EntityManager entityManager,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.search.username-index.max-matches:1000}") int maxMatches,
+                               @Value("${app.search.username-index.max-pending-changes:10000}") int maxPendingChanges) {
+        this.changeCollector = changeCollector;
+        this.queryFactory = new JPAQueryFactory(entityManager);
+        this.primaryTransaction = new TransactionTemplate(transactionManager); //readOnly가 아니므로 replica로 라우팅되지 않음
+        this.maxMatches = maxMatches;
+        this.maxPendingChanges = maxPendingChanges;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        changeCollector.subscribe(this);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        rebuild();
+    }
+
+    /**
+     * member 테이블을 primary에서 다시 읽어 새 인덱스를 만들고 교체
+     * 읽는 동안 커밋된 변경은 따로 모았다가 새 인덱스에 다시 반영하므로, 삭제된 회원이 남는 정도의 차이만 생길 수 있음(조회 시 like로 걸러짐)
+     */
+    @Scheduled(fixedDelayString = "${app.search.username-index.rebuild-interval-ms:300000}",
+            initialDelayString = "${app.search.username-index.rebuild-interval-ms:300000}")
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        UsernameIndex fresh = new UsernameIndex();
+        List<Change> journal = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            stale = false; //rebuild 중에 다시 stale 이 되면 다음 확인 때 한 번 더 만듦
+            committedDuringRebuild = journal;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            primaryTransaction.executeWithoutResult(status -> {
+                try (Stream<Tuple> rows = queryFactory
+                        .select(member.id, member.username)
+                        .from(member)
+                        .setHint(HibernateHints.HINT_FETCH_SIZE, BUILD_FETCH_SIZE)
+                        .stream()) {
+                    rows.forEach(row -> fresh.add(row.get(member.id), row.get(member.username)));
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                committedDuringRebuild = null;
+                stale = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            applyTo(fresh, journal);
+            index = fresh;
+            committedDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+        log.info("username index built: {} usernames in {} ms", size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    //변경을 다 모으지 못한 트랜잭션이 커밋되었으면 다음 주기를 기다리지 않고 다시 만듦 (그동안은 like로 조회)
+    @Scheduled(fixedDelayString = "${app.search.username-index.stale-check-interval-ms:1000}",
+            initialDelayString = "${app.search.username-index.stale-check-interval-ms:1000}")
+    public void rebuildIfStale() {
+        if (stale) {
+            rebuild();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return 회원명이 일치하는 회원 id, 인덱스가 준비되지 않았거나 stale 이거나 max-matches 를 넘으면 null (like로 조회해야 함)
+     */
+    public Set<Long> find(UsernameMatch match, String username) {
+        if (!ready || stale) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            return switch (match) {
+                case EXACT -> null; //정확히 일치는 DB 인덱스(idx_member_username)로 충분함
+                case PREFIX -> index.prefix(username, maxMatches);
+                case CONTAINS -> index.contains(username, maxMatches);
+            };
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * PREFIX/CONTAINS 조건의 searchMemberTeam - 인덱스에서 찾은 id를 in 절로 조회
+     */
+    public List<MemberTeamDto> searchMemberTeam(MemberSearchCondition condition) {
+        UsernameMatch match = MemberSearchPredicates.usernameMatch(condition);
+        Set<Long> ids = find(match, condition.getUsername());
+        if (ids != null && ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        JPAQuery<MemberTeamDto> query = queryFactory
+                .select(new QMemberTeamDto(member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member);
+        if (hasLength(condition.getTeamName())) {
+            query.join(member.team, team);
+        } else {
+            query.leftJoin(member.team, team);
+        }
+        return query
+                .where(ids == null ? null : member.id.in(ids))
+                .where(MemberSearchPredicates.of(condition))
+                .fetch();
+    }
+
+    @Override
+    public int maxPendingChanges() {
+        return maxPendingChanges;
+    }
+
+    @Override
+    public void onInsert(PostInsertEvent event, Consumer<Change> changes) {
+        if (event.getEntity() instanceof Member inserted) {
+            changes.accept(new Change((Long) event.getId(), null, inserted.getUsername()));
+        }
+    }
+
+    @Override
+    public void onUpdate(PostUpdateEvent event, Consumer<Change> changes) {
+        if (event.getEntity() instanceof Member updated) {
+            int property = usernameIndex(event.getPersister());
+            String oldUsername = event.getOldState() == null ? null : (String) event.getOldState()[property];
+            changes.accept(new Change((Long) event.getId(), oldUsername, updated.getUsername()));
+        }
+    }
+
+    @Override
+    public void onDelete(PostDeleteEvent event, Consumer<Change> changes) {
+        if (event.getEntity() instanceof Member) {
+            String oldUsername = (String) event.getDeletedState()[usernameIndex(event.getPersister())];
+            changes.accept(new Change((Long) event.getId(), oldUsername, null));
+        }
+    }
+
+    @Override
+    public void onBulkChange(List<MemberBulkChange> bulkChanges, Consumer<Change> changes) {
+        for (MemberBulkChange bulkChange : bulkChanges) {
+            changes.accept(new Change(bulkChange.memberId(), username(bulkChange.before()), username(bulkChange.after())));
+        }
+    }
+
+    //커밋에 성공했을 때만 인덱스에 반영
+    @Override
+    public void afterCompletion(boolean committed, PendingChanges<Change> changes) {
+        if (!committed) {
+            return;
+        }
+        if (changes.isOverflowed()) {
+            stale = true;
+            log.info("username index marked stale: a transaction committed more than {} member changes", maxPendingChanges);
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            applyTo(index, changes.changes());
+            if (committedDuringRebuild != null) {
+                committedDuringRebuild.addAll(changes.changes());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void applyTo(UsernameIndex target, List<Change> changes) {
+        for (Change change : changes) {
+            target.remove(change.id(), change.oldUsername());
+            target.add(change.id(), change.newUsername());
+        }
+    }
+
+    private static String username(MemberBulkChange.State state) {
+        return state == null ? null : state.username();
+    }
+
+    private static int usernameIndex(EntityPersister persister) {
+        return persister.getEntityMetamodel().getPropertyIndex("username");
+    }
+
+    record Change(long id, String oldUsername, String newUsername) {
+    }
+}
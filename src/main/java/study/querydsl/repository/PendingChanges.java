@@ -0,0 +1,39 @@
+package study.querydsl.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 한 트랜잭션에서 구독자 하나가 모은 변경, limit을 넘으면 목록을 버리고 넘었다는 것만 남김
+ * 대량 insert(MemberBulkLoader)처럼 flush/clear로 메모리를 제한하는 작업에서도 변경 목록이 계속 커지지 않음
+ * 넘었을 때 어떻게 맞출지(stale 표시 후 다시 만들기 등)는 구독자가 정함
+ */
+public final class PendingChanges<C> {
+
+    private final int limit;
+    private List<C> changes = new ArrayList<>();
+
+    PendingChanges(int limit) {
+        this.limit = limit;
+    }
+
+    void add(C change) {
+        if (changes == null) {
+            return;
+        }
+        if (changes.size() >= limit) {
+            changes = null;
+            return;
+        }
+        changes.add(change);
+    }
+
+    public boolean isOverflowed() {
+        return changes == null;
+    }
+
+    //넘었으면 빈 목록
+    public List<C> changes() {
+        return changes == null ? List.of() : changes;
+    }
+}
@@ -0,0 +1,60 @@
+package study.querydsl.repository;
+
+import org.hibernate.ScrollableResults;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * forward-only 커서(ScrollableResults)를 한 행씩 읽는 Iterator
+ * 다음 행으로 넘어갈 때 이전 행을 release(엔티티면 detach) 하므로 읽은 행이 영속성 컨텍스트에 쌓이지 않음
+ * 커서는 트랜잭션(커넥션)이 열려있는 동안만 읽을 수 있고, 다 읽지 않았더라도 try-with-resources 로 닫아야 함
+ * ex) try (ScrollIterator<Member> members = memberJpaRepository.scroll(query, 1000)) { while (members.hasNext()) ... }
+ */
+public class ScrollIterator<T> implements Iterator<T>, AutoCloseable {
+
+    private final ScrollableResults<T> results;
+    private final Consumer<T> release;
+    private T current;
+    private boolean advanced;
+    private boolean hasNext;
+
+    ScrollIterator(ScrollableResults<T> results, Consumer<T> release) {
+        this.results = results;
+        this.release = release;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!advanced) {
+            releaseCurrent();
+            hasNext = results.next();
+            advanced = true;
+        }
+        return hasNext;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        advanced = false;
+        current = results.get();
+        return current;
+    }
+
+    @Override
+    public void close() {
+        releaseCurrent();
+        results.close();
+    }
+
+    private void releaseCurrent() {
+        if (current != null) {
+            release.accept(current);
+            current = null;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+
+public interface TeamRepository extends JpaRepository<Team, Long>, TeamRepositoryCustom {
+
+    //쿼리 캐시에는 팀 id만 저장되고, 팀은 2차 캐시(Team 영역)에서 조회함
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Team> findByName(String name);
+}
@@ -0,0 +1,11 @@
+package study.querydsl.repository;
+
+import study.querydsl.entity.Team;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface TeamRepositoryCustom {
+
+    List<Team> findTeamsWithMembers(Collection<String> teamNames);
+}
@@ -0,0 +1,36 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Team;
+
+import java.util.Collection;
+import java.util.List;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@Transactional(readOnly = true)
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+    private final JPAQueryFactory queryFactory;
+
+    public TeamRepositoryImpl(EntityManager entityManager) {
+        this.queryFactory = new JPAQueryFactory(entityManager);
+    }
+
+    /**
+     * 팀과 소속 회원(team.members)을 팀 수와 상관없이 쿼리 한 번으로 조회
+     * 컬렉션 fetch join은 팀 행이 회원 수만큼 늘어나므로 페이징(offset/limit)과 함께 쓰지 않음
+     * 페이징이 필요하면 팀만 조회하고 team.members는 배치 페치(@BatchSize)로 초기화하면 팀 100개당 쿼리 한 번이 추가됨
+     */
+    @Override
+    public List<Team> findTeamsWithMembers(Collection<String> teamNames) {
+        return queryFactory
+                .selectFrom(team)
+                .leftJoin(team.members, member).fetchJoin() //하이버네이트 6은 fetch join으로 중복된 팀을 자동으로 제거하므로 distinct 불필요
+                .where(team.name.in(teamNames))
+                .orderBy(team.id.asc())
+                .fetch();
+    }
+}
@@ -0,0 +1,347 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.TeamStatisticsDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 팀별 회원 수, 나이 평균/최대/최소를 매번 group by 하지 않고 메모리에서 증분으로 유지 (/v1/teams/stats)
+ *
+ * 1. 애플리케이션이 준비되면(ApplicationReadyEvent) group by 쿼리로 한 번 만들고
+ * 2. 이후 Member/Team 저장/수정/삭제는 EntityChangeCollector가 트랜잭션별로 모아준 변경을 커밋에 성공하면 반영함
+ * 3. 벌크 쿼리(EntityChangeCollector.bulkChange)는 전후 값을 받아서 같은 방법으로 반영하고,
+ *    이벤트가 없는 변경(다른 인스턴스, 네이티브 SQL)으로 생기는 차이는 주기적으로(app.team-stats.reconcile-interval) DB와 다시 맞춤
+ *
+ * 변경을 모은 트랜잭션은 커밋 직전부터 변경을 반영할 때까지 commitLock의 읽기 lock을 잡고, reconcile은 집계부터 교체까지 쓰기 lock을 잡음
+ * 그래서 reconcile이 읽은 DB 값에 포함된 커밋은 반드시 교체 전에(이전 값에) 반영되고, 포함되지 않은 커밋은 교체 후에(새 값에) 반영됨
+ *
+ * 한 트랜잭션의 변경이 max-pending-changes 를 넘으면(대량 insert 등) 커밋 후 stale 로 표시함
+ * stale 인 동안은 DB에서 바로 집계하고, 짧은 주기로 확인해서 reconcile 함
+ *
+ * 값은 LongAdder로 lock 없이 갱신하고, max/min은 나이별 회원 수(histogram)에서 회원이 있는 가장 큰/작은 나이로 구함
+ * 여러 값을 한 번에 갱신하지 않으므로 조회하는 순간 갱신 중인 값끼리는 잠깐 맞지 않을 수 있음
+ */
+@Slf4j
+@Component
+public class TeamStatisticsStore implements EntityChangeSubscriber<Runnable> {
+
+    private final EntityChangeCollector changeCollector;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate primaryTransaction;
+    private final int maxPendingChanges;
+
+    private volatile Map<Long, Aggregate> aggregates = new ConcurrentHashMap<>(); //commitLock의 쓰기 lock 안에서만 교체
+    private final ReentrantReadWriteLock commitLock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+    private volatile boolean stale;
+
+    public TeamStatisticsStore(EntityChangeCollector changeCollector,
+                               EntityManager entityManager,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.team-stats.max-pending-changes:10000}") int maxPendingChanges) {
+        this.changeCollector = changeCollector;
+        this.queryFactory = new JPAQueryFactory(entityManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.primaryTransaction = new TransactionTemplate(transactionManager); //readOnly가 아니므로 replica로 라우팅되지 않음
+        this.maxPendingChanges = maxPendingChanges;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        changeCollector.subscribe(this);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        reconcile();
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    //팀 id 순서, 처음 집계가 끝나기 전이나 stale 인 동안은 DB에서 바로 집계함
+    public List<TeamStatisticsDto> statistics() {
+        Map<Long, Aggregate> source = ready && !stale ? aggregates : readOnlyTransaction.execute(status -> load());
+        List<TeamStatisticsDto> result = new ArrayList<>(source.size());
+        source.forEach((teamId, aggregate) -> result.add(aggregate.toDto(teamId)));
+        result.sort(Comparator.comparing(TeamStatisticsDto::getTeamId));
+        return result;
+    }
+
+    /**
+     * DB에서 group by로 다시 집계해서 메모리 값을 교체, 달라진 팀이 있으면 경고 로그를 남김
+     * 집계부터 교체까지 commitLock의 쓰기 lock을 잡으므로, 그동안 변경을 모은 트랜잭션은 커밋 직전에 기다림
+     * 지연된 replica 값으로 더 최신인 메모리 값을 덮어쓰지 않도록 primary에서 집계함
+     */
+    @Scheduled(fixedDelayString = "${app.team-stats.reconcile-interval-ms:60000}",
+            initialDelayString = "${app.team-stats.reconcile-interval-ms:60000}")
+    public synchronized void reconcile() {
+        long start = System.nanoTime();
+        Map<Long, Aggregate> fresh;
+        int drifted = 0;
+        commitLock.writeLock().lock();
+        try {
+            stale = false; //교체 후에 커밋된 트랜잭션이 다시 stale 로 표시하면 다음 확인 때 한 번 더 맞춤
+            fresh = primaryTransaction.execute(status -> new ConcurrentHashMap<>(load()));
+            if (fresh == null) {
+                return;
+            }
+            Map<Long, Aggregate> current = aggregates;
+            for (Map.Entry<Long, Aggregate> entry : fresh.entrySet()) {
+                Aggregate aggregate = current.get(entry.getKey());
+                if (aggregate == null || !aggregate.sameAs(entry.getValue())) {
+                    drifted++;
+                }
+            }
+            drifted += (int) current.keySet().stream().filter(teamId -> !fresh.containsKey(teamId)).count();
+            aggregates = fresh;
+        } finally {
+            commitLock.writeLock().unlock();
+        }
+        if (ready && drifted > 0) {
+            log.warn("team statistics reconciled: {} teams drifted from the database", drifted);
+        }
+        log.debug("team statistics reconciled: {} teams in {} ms", fresh.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    //변경을 다 모으지 못한 트랜잭션이 커밋되었으면 다음 주기를 기다리지 않고 맞춤
+    @Scheduled(fixedDelayString = "${app.team-stats.stale-check-interval-ms:1000}",
+            initialDelayString = "${app.team-stats.stale-check-interval-ms:1000}")
+    public void reconcileIfStale() {
+        if (stale) {
+            reconcile();
+        }
+    }
+
+    //팀, 나이별 회원 수 - 회원이 없는 팀은 age가 null 인 한 행
+    private Map<Long, Aggregate> load() {
+        Map<Long, Aggregate> loaded = new HashMap<>();
+        List<Tuple> rows = queryFactory
+                .select(team.id, team.name, member.age, member.id.count())
+                .from(team)
+                .leftJoin(team.members, member)
+                .groupBy(team.id, team.name, member.age)
+                .fetch();
+        for (Tuple row : rows) {
+            Aggregate aggregate = loaded.computeIfAbsent(row.get(team.id), teamId -> new Aggregate(row.get(team.name)));
+            Integer age = row.get(member.age);
+            long count = Objects.requireNonNullElse(row.get(member.id.count()), 0L);
+            if (age != null && count > 0) {
+                aggregate.add(age, count);
+            }
+        }
+        return loaded;
+    }
+
+    @Override
+    public int maxPendingChanges() {
+        return maxPendingChanges;
+    }
+
+    @Override
+    public void onInsert(PostInsertEvent event, Consumer<Runnable> changes) {
+        if (event.getEntity() instanceof Member inserted) {
+            //이후 같은 트랜잭션에서 바뀐 값은 update 이벤트로 따로 반영되므로 지금 값을 복사해둠
+            Long newTeamId = teamId(inserted.getTeam());
+            int newAge = inserted.getAge();
+            String newTeamName = initializedName(inserted.getTeam());
+            changes.accept(() -> move(null, null, newTeamId, newAge, newTeamName));
+        } else if (event.getEntity() instanceof Team inserted) {
+            Long teamId = (Long) event.getId();
+            String name = inserted.getName();
+            changes.accept(() -> aggregates.computeIfAbsent(teamId, id -> new Aggregate(name)));
+        }
+    }
+
+    @Override
+    public void onUpdate(PostUpdateEvent event, Consumer<Runnable> changes) {
+        if (event.getEntity() instanceof Member updated) {
+            Object[] oldState = event.getOldState();
+            if (oldState == null) {
+                return; //이전 값을 알 수 없으면 reconcile에서 맞춤
+            }
+            EntityPersister persister = event.getPersister();
+            Long oldTeamId = teamId((Team) oldState[propertyIndex(persister, "team")]);
+            Integer oldAge = (Integer) oldState[propertyIndex(persister, "age")];
+            Long newTeamId = teamId(updated.getTeam());
+            int newAge = updated.getAge();
+            String newTeamName = initializedName(updated.getTeam());
+            changes.accept(() -> move(oldTeamId, oldAge, newTeamId, newAge, newTeamName));
+        } else if (event.getEntity() instanceof Team updated) {
+            Long teamId = (Long) event.getId();
+            String name = updated.getName();
+            changes.accept(() -> aggregates.computeIfAbsent(teamId, id -> new Aggregate(name)).name = name);
+        }
+    }
+
+    @Override
+    public void onDelete(PostDeleteEvent event, Consumer<Runnable> changes) {
+        if (event.getEntity() instanceof Member) {
+            Object[] deletedState = event.getDeletedState();
+            EntityPersister persister = event.getPersister();
+            Long oldTeamId = teamId((Team) deletedState[propertyIndex(persister, "team")]);
+            Integer oldAge = (Integer) deletedState[propertyIndex(persister, "age")];
+            changes.accept(() -> move(oldTeamId, oldAge, null, null, null));
+        } else if (event.getEntity() instanceof Team) {
+            Long teamId = (Long) event.getId();
+            changes.accept(() -> aggregates.remove(teamId));
+        }
+    }
+
+    @Override
+    public void onBulkChange(List<MemberBulkChange> bulkChanges, Consumer<Runnable> changes) {
+        for (MemberBulkChange bulkChange : bulkChanges) {
+            MemberBulkChange.State old = bulkChange.before();
+            MemberBulkChange.State changed = bulkChange.after();
+            changes.accept(() -> move(old.teamId(), old.age(), changed == null ? null : changed.teamId(), changed == null ? null : changed.age(), null));
+        }
+    }
+
+    //커밋하는 동안 reconcile이 집계하지 않도록 읽기 lock을 잡음 (afterCompletion에서 반영한 뒤 풂)
+    @Override
+    public void beforeCommit(EventSource session, PendingChanges<Runnable> changes) {
+        commitLock.readLock().lock();
+    }
+
+    //롤백이 beforeCommit 전에 일어났으면 잡은 lock이 없음
+    @Override
+    public void afterCompletion(boolean committed, PendingChanges<Runnable> changes) {
+        boolean locked = commitLock.getReadHoldCount() > 0;
+        try {
+            if (!committed) {
+                return;
+            }
+            if (changes.isOverflowed()) {
+                stale = true;
+                log.info("team statistics marked stale: a transaction committed more than {} changes", maxPendingChanges);
+                return;
+            }
+            changes.changes().forEach(Runnable::run);
+        } finally {
+            if (locked) {
+                commitLock.readLock().unlock();
+            }
+        }
+    }
+
+    //회원 한 명을 (oldTeam, oldAge) 에서 (newTeam, newAge) 로 옮김, 팀이 없으면(null) 집계하지 않음
+    private void move(Long oldTeamId, Integer oldAge, Long newTeamId, Integer newAge, String newTeamName) {
+        if (oldTeamId != null && oldAge != null) {
+            Aggregate old = aggregates.get(oldTeamId);
+            if (old != null) {
+                old.add(oldAge, -1);
+            }
+        }
+        if (newTeamId != null && newAge != null) {
+            aggregates.computeIfAbsent(newTeamId, id -> new Aggregate(newTeamName)).add(newAge, 1);
+        }
+    }
+
+    //프록시의 id는 초기화 없이 읽을 수 있음
+    private static Long teamId(Team team) {
+        return team == null ? null : team.getId();
+    }
+
+    //이벤트 안에서 프록시를 초기화하지 않도록, 로딩된 팀만 이름을 읽음 (없으면 reconcile에서 채워짐)
+    private static String initializedName(Team team) {
+        return team != null && Hibernate.isInitialized(team) ? team.getName() : null;
+    }
+
+    private static int propertyIndex(EntityPersister persister, String property) {
+        return persister.getEntityMetamodel().getPropertyIndex(property);
+    }
+
+    /**
+     * 한 팀의 집계 값 - 회원 수, 나이 합계, 나이별 회원 수
+     */
+    private static class Aggregate {
+        private volatile String name;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder ageSum = new LongAdder();
+        private final ConcurrentSkipListMap<Integer, LongAdder> ageHistogram = new ConcurrentSkipListMap<>();
+
+        private Aggregate(String name) {
+            this.name = name;
+        }
+
+        private void add(int age, long delta) {
+            ageHistogram.computeIfAbsent(age, a -> new LongAdder()).add(delta);
+            ageSum.add(age * delta);
+            count.add(delta);
+        }
+
+        //회원 수가 0인 나이는 건너뜀 (지우지 않고 남겨둠)
+        private Integer maxAge() {
+            for (Map.Entry<Integer, LongAdder> entry : ageHistogram.descendingMap().entrySet()) {
+                if (entry.getValue().sum() > 0) {
+                    return entry.getKey();
+                }
+            }
+            return null;
+        }
+
+        private Integer minAge() {
+            for (Map.Entry<Integer, LongAdder> entry : ageHistogram.entrySet()) {
+                if (entry.getValue().sum() > 0) {
+                    return entry.getKey();
+                }
+            }
+            return null;
+        }
+
+        private TeamStatisticsDto toDto(Long teamId) {
+            long total = count.sum();
+            Double avgAge = total > 0 ? (double) ageSum.sum() / total : null;
+            return new TeamStatisticsDto(teamId, name, total, avgAge, maxAge(), minAge());
+        }
+
+        private boolean sameAs(Aggregate other) {
+            return Objects.equals(name, other.name)
+                    && count.sum() == other.count.sum()
+                    && ageSum.sum() == other.ageSum.sum()
+                    && Objects.equals(maxAge(), other.maxAge())
+                    && Objects.equals(minAge(), other.minAge());
+        }
+    }
+}
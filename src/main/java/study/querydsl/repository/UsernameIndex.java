@@ -0,0 +1,153 @@
+package study.querydsl.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 회원명 -> 회원 id 메모리 인덱스 (동기화하지 않으므로 MemberUsernameIndex가 락을 걸고 사용)
+ *
+ * 1. 접두사(PREFIX): 회원명을 정렬해서 보관(TreeMap)하므로 [prefix, prefix + Character.MAX_VALUE) 범위만 읽음
+ * 2. 부분 문자열(CONTAINS): 3글자 조각(trigram)별로 그 조각을 포함한 회원명 목록을 보관하고,
+ *    검색어의 조각 중 목록이 가장 짧은 것만 읽어서 실제로 포함하는지 확인
+ *
+ * 조각 목록에서 회원명을 바로 지우면 긴 목록을 매번 훑어야 하므로, 삭제는 표시만 하고(회원명이 TreeMap에 없으면 무시)
+ * 지워진 항목이 전체의 절반을 넘으면 조각 목록을 다시 만듦
+ */
+final class UsernameIndex {
+
+    static final int GRAM = 3;
+
+    private final NavigableMap<String, long[]> idsByUsername = new TreeMap<>();
+    private final Map<String, List<String>> usernamesByGram = new HashMap<>();
+    private long postings;
+    private long stalePostings;
+
+    void add(long id, String username) {
+        if (username == null) {
+            return;
+        }
+        long[] ids = idsByUsername.get(username);
+        if (ids == null) {
+            idsByUsername.put(username, new long[]{id});
+            for (String gram : grams(username)) {
+                usernamesByGram.computeIfAbsent(gram, key -> new ArrayList<>()).add(username);
+                postings++;
+            }
+            return;
+        }
+        for (long existing : ids) {
+            if (existing == id) {
+                return;
+            }
+        }
+        long[] grown = Arrays.copyOf(ids, ids.length + 1);
+        grown[ids.length] = id;
+        idsByUsername.put(username, grown);
+    }
+
+    void remove(long id, String username) {
+        if (username == null) {
+            return;
+        }
+        long[] ids = idsByUsername.get(username);
+        if (ids == null) {
+            return;
+        }
+        long[] remaining = Arrays.stream(ids).filter(existing -> existing != id).toArray();
+        if (remaining.length > 0) {
+            idsByUsername.put(username, remaining);
+            return;
+        }
+        idsByUsername.remove(username);
+        stalePostings += grams(username).size();
+        if (stalePostings * 2 > postings) {
+            compact();
+        }
+    }
+
+    /**
+     * @return 일치하는 회원 id, limit 건을 넘으면 null (인덱스보다 DB의 like가 나은 경우)
+     */
+    Set<Long> prefix(String prefix, int limit) {
+        Set<Long> result = new LinkedHashSet<>();
+        for (long[] ids : idsByUsername.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            if (!addAll(result, ids, limit)) {
+                return null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return 일치하는 회원 id, limit 건을 넘으면 null
+     */
+    Set<Long> contains(String term, int limit) {
+        Collection<String> candidates = term.length() < GRAM ? idsByUsername.keySet() : smallestPosting(term);
+        Set<Long> result = new LinkedHashSet<>();
+        for (String username : candidates) {
+            if (!username.contains(term)) {
+                continue;
+            }
+            long[] ids = idsByUsername.get(username); //삭제된 회원명이면 null
+            if (ids != null && !addAll(result, ids, limit)) {
+                return null;
+            }
+        }
+        return result;
+    }
+
+    int size() {
+        return idsByUsername.size();
+    }
+
+    private Collection<String> smallestPosting(String term) {
+        List<String> smallest = null;
+        for (String gram : grams(term)) {
+            List<String> posting = usernamesByGram.get(gram);
+            if (posting == null) {
+                return List.of(); //검색어의 조각을 포함한 회원명이 없음
+            }
+            if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+        return smallest;
+    }
+
+    private void compact() {
+        usernamesByGram.clear();
+        postings = 0;
+        stalePostings = 0;
+        for (String username : idsByUsername.keySet()) {
+            for (String gram : grams(username)) {
+                usernamesByGram.computeIfAbsent(gram, key -> new ArrayList<>()).add(username);
+                postings++;
+            }
+        }
+    }
+
+    private static boolean addAll(Set<Long> result, long[] ids, int limit) {
+        for (long id : ids) {
+            result.add(id);
+        }
+        return result.size() <= limit;
+    }
+
+    //같은 조각이 여러 번 나와도 목록에는 한 번만 넣음
+    static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,58 @@
+package study.querydsl.sql;
+
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.PathMetadata;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.StringPath;
+import com.querydsl.sql.ColumnMetadata;
+import com.querydsl.sql.ForeignKey;
+import com.querydsl.sql.PrimaryKey;
+import com.querydsl.sql.RelationalPathBase;
+
+import java.sql.Types;
+
+import static com.querydsl.core.types.PathMetadataFactory.forVariable;
+
+/**
+ * member 테이블의 querydsl-sql 메타 모델 (querydsl-sql-codegen 의 MetaDataExporter 출력 형식, namePrefix = "S")
+ * JPA Q타입(QMember)과 이름이 겹치지 않도록 S 접두사를 사용
+ * 테이블이 ddl-auto로 만들어지므로 빌드 시점에 DB 메타데이터를 읽을 수 없어서 코드로 관리함, 엔티티 매핑이 바뀌면 같이 수정해야 함
+ */
+public class SMember extends RelationalPathBase<SMember> {
+
+    public static final SMember member = new SMember("member");
+
+    public final NumberPath<Integer> age = createNumber("age", Integer.class);
+
+    public final NumberPath<Long> memberId = createNumber("memberId", Long.class);
+
+    public final NumberPath<Long> teamId = createNumber("teamId", Long.class);
+
+    public final StringPath username = createString("username");
+
+    public final PrimaryKey<SMember> constraintPrimary = createPrimaryKey(memberId);
+
+    public final ForeignKey<STeam> memberTeamFk = createForeignKey(teamId, "TEAM_ID");
+
+    public SMember(String variable) {
+        super(SMember.class, forVariable(variable), "PUBLIC", "MEMBER");
+        addMetadata();
+    }
+
+    public SMember(Path<? extends SMember> path) {
+        super(path.getType(), path.getMetadata(), "PUBLIC", "MEMBER");
+        addMetadata();
+    }
+
+    public SMember(PathMetadata metadata) {
+        super(SMember.class, metadata, "PUBLIC", "MEMBER");
+        addMetadata();
+    }
+
+    public void addMetadata() {
+        addMetadata(age, ColumnMetadata.named("AGE").withIndex(1).ofType(Types.INTEGER).withSize(32).notNull());
+        addMetadata(memberId, ColumnMetadata.named("MEMBER_ID").withIndex(2).ofType(Types.BIGINT).withSize(64).notNull());
+        addMetadata(teamId, ColumnMetadata.named("TEAM_ID").withIndex(3).ofType(Types.BIGINT).withSize(64));
+        addMetadata(username, ColumnMetadata.named("USERNAME").withIndex(4).ofType(Types.VARCHAR).withSize(255));
+    }
+}
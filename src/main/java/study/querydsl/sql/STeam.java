@@ -0,0 +1,50 @@
+package study.querydsl.sql;
+
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.PathMetadata;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.StringPath;
+import com.querydsl.sql.ColumnMetadata;
+import com.querydsl.sql.ForeignKey;
+import com.querydsl.sql.PrimaryKey;
+import com.querydsl.sql.RelationalPathBase;
+
+import java.sql.Types;
+
+import static com.querydsl.core.types.PathMetadataFactory.forVariable;
+
+/**
+ * team 테이블의 querydsl-sql 메타 모델 (SMember 참고)
+ */
+public class STeam extends RelationalPathBase<STeam> {
+
+    public static final STeam team = new STeam("team");
+
+    public final StringPath name = createString("name");
+
+    public final NumberPath<Long> teamId = createNumber("teamId", Long.class);
+
+    public final PrimaryKey<STeam> constraintPrimary = createPrimaryKey(teamId);
+
+    public final ForeignKey<SMember> _memberTeamFk = createInvForeignKey(teamId, "TEAM_ID");
+
+    public STeam(String variable) {
+        super(STeam.class, forVariable(variable), "PUBLIC", "TEAM");
+        addMetadata();
+    }
+
+    public STeam(Path<? extends STeam> path) {
+        super(path.getType(), path.getMetadata(), "PUBLIC", "TEAM");
+        addMetadata();
+    }
+
+    public STeam(PathMetadata metadata) {
+        super(STeam.class, metadata, "PUBLIC", "TEAM");
+        addMetadata();
+    }
+
+    public void addMetadata() {
+        addMetadata(name, ColumnMetadata.named("NAME").withIndex(1).ofType(Types.VARCHAR).withSize(255));
+        addMetadata(teamId, ColumnMetadata.named("TEAM_ID").withIndex(2).ofType(Types.BIGINT).withSize(64).notNull());
+    }
+}
@@ -0,0 +1,50 @@
+package study.querydsl.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConnectionPermitDataSourceTest {
+
+    ConnectionPermitDataSource dataSource = new ConnectionPermitDataSource(
+            new DriverManagerDataSource("jdbc:h2:mem:permit-" + UUID.randomUUID(), "sa", ""), 1, Duration.ofMillis(100));
+
+    @Test
+    @DisplayName("permit이 없으면 timeout 후 실패하고, close 하면 permit을 돌려줌")
+    public void permitTest() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        assertThat(dataSource.availablePermits()).isZero();
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+        connection.close();
+        connection.close(); //두 번 닫아도 한 번만 돌려줌
+
+        assertThat(dataSource.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("equals/hashCode는 실제 커넥션이 아니라 프록시 기준")
+    public void equalsHashCodeTest() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            Connection target = connection.unwrap(Connection.class);
+            Set<Connection> connections = new HashSet<>();
+            connections.add(connection);
+
+            assertThat(connection).isEqualTo(connection);
+            assertThat(connection).isNotEqualTo(target);
+            assertThat(connections).contains(connection);
+            assertThat(connection.hashCode()).isEqualTo(System.identityHashCode(connection));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * replica 설정으로 애플리케이션을 띄워서 JpaTransactionManager + LazyConnectionDataSourceProxy 경로로 라우팅되는지 확인
+ * primary, replica 양쪽에 자신의 이름을 가진 db_name 테이블을 만들고 JPA 네이티브 쿼리로 어느 쪽에서 읽었는지 확인
+ */
+@SpringBootTest(properties = {
+        "app.datasource.replica.url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.hikari.maximum-pool-size=3",
+        "spring.datasource.hikari.maximum-pool-size=7"
+})
+class DataSourceRoutingConfigTest {
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    HikariDataSource primaryDataSource;
+    @Autowired
+    @Qualifier("replicaDataSource")
+    HikariDataSource replicaDataSource;
+    @Autowired
+    ReplicaLagMonitor replicaLagMonitor;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void before() {
+        createDbName(primaryDataSource, "primary");
+        createDbName(replicaDataSource, "replica");
+        replicaLagMonitor.check(); //스케줄된 첫 확인을 기다리지 않음
+    }
+
+    @AfterEach
+    public void after() {
+        new JdbcTemplate(primaryDataSource).execute("drop table if exists db_name");
+        new JdbcTemplate(replicaDataSource).execute("drop table if exists db_name");
+    }
+
+    @Test
+    @DisplayName("JPA 읽기 전용 트랜잭션은 replica, 쓰기 트랜잭션은 primary로 라우팅")
+    public void jpaRouting() {
+        assertThat(transactionManager).isInstanceOf(JpaTransactionManager.class);
+        TransactionTemplate writeTransaction = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        assertThat(readOnlyTransaction.execute(status -> currentDatabase())).isEqualTo("replica");
+        assertThat(writeTransaction.execute(status -> currentDatabase())).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("spring.datasource.hikari.* 는 primary, app.datasource.replica.hikari.* 는 replica 풀에 적용")
+    public void hikariProperties() {
+        assertThat(primaryDataSource.getMaximumPoolSize()).isEqualTo(7);
+        assertThat(primaryDataSource.getPoolName()).isEqualTo("primary");
+        assertThat(replicaDataSource.getMaximumPoolSize()).isEqualTo(3);
+        assertThat(replicaDataSource.isReadOnly()).isTrue();
+    }
+
+    private String currentDatabase() {
+        return (String) entityManager.createNativeQuery("select name from db_name").getSingleResult();
+    }
+
+    private static void createDbName(HikariDataSource dataSource, String name) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists db_name (name varchar(20))");
+        jdbcTemplate.update("delete from db_name");
+        jdbcTemplate.update("insert into db_name values (?)", name);
+    }
+}
@@ -0,0 +1,73 @@
+package study.querydsl.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NPlusOneDetectorTest {
+
+    static final SqlStatement SELECT_TEAM = new SqlStatement("select t1_0.team_id,t1_0.name from team t1_0 where t1_0.team_id=?");
+
+    NPlusOneDetector detector = new NPlusOneDetector(5, 3, NPlusOneDetector.Mode.FAIL);
+
+    @AfterEach
+    public void after() {
+        detector.end();
+    }
+
+    @Test
+    @DisplayName("같은 조회 SQL이 반복되면 N+1로 실패")
+    public void repeatedStatement() {
+        detector.begin("test");
+        detector.onStatement(SELECT_TEAM);
+        detector.onStatement(SELECT_TEAM);
+
+        assertThatThrownBy(() -> detector.onStatement(SELECT_TEAM))
+                .isInstanceOf(StatementBudgetExceededException.class)
+                .hasMessageContaining("N+1");
+    }
+
+    @Test
+    @DisplayName("조회 SQL 예산을 넘으면 실패")
+    public void budgetExceeded() {
+        detector.begin("test");
+        for (int i = 0; i < 5; i++) {
+            detector.onStatement(new SqlStatement("select m1_0.member_id from member m1_0 where m1_0.age>" + i));
+        }
+
+        assertThatThrownBy(() -> detector.onStatement(new SqlStatement("select 1")))
+                .isInstanceOf(StatementBudgetExceededException.class);
+    }
+
+    @Test
+    @DisplayName("변경 SQL, 시퀀스 조회, 측정 구간 밖의 SQL은 세지 않음")
+    public void ignored() {
+        for (int i = 0; i < 10; i++) {
+            detector.onStatement(SELECT_TEAM); //구간 밖
+        }
+        detector.begin("test");
+        for (int i = 0; i < 10; i++) {
+            detector.onStatement(new SqlStatement("insert into member (age,team_id,username,member_id) values (?,?,?,?)"));
+            detector.onStatement(new SqlStatement("select next value for member_seq"));
+        }
+
+        assertThatCode(() -> detector.onStatement(SELECT_TEAM)).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("WARN 모드는 예외 없이 경고만 남김")
+    public void warnMode() {
+        NPlusOneDetector warnDetector = new NPlusOneDetector(5, 3, NPlusOneDetector.Mode.WARN);
+        warnDetector.begin("test");
+
+        assertThatCode(() -> {
+            for (int i = 0; i < 10; i++) {
+                warnDetector.onStatement(SELECT_TEAM);
+            }
+        }).doesNotThrowAnyException();
+        warnDetector.end();
+    }
+}
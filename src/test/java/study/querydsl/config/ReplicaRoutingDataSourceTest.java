@@ -0,0 +1,86 @@
+package study.querydsl.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * primary, replica 역할을 하는 H2 메모리 DB 두 개로 라우팅을 확인
+ */
+class ReplicaRoutingDataSourceTest {
+
+    DataSource primary = h2("primary");
+    DataSource replica = h2("replica");
+    DataSource dataSource;
+    TransactionTemplate writeTransaction;
+    TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    public void before() {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, "select count(*) from db_name", null, Duration.ofSeconds(5));
+        monitor.check();
+        dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, monitor));
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Test
+    @DisplayName("읽기 전용 트랜잭션은 replica, 나머지는 primary로 라우팅")
+    public void routing() {
+        assertThat(readOnlyTransaction.execute(status -> currentDatabase())).isEqualTo("replica");
+        assertThat(writeTransaction.execute(status -> currentDatabase())).isEqualTo("primary");
+        assertThat(currentDatabase()).isEqualTo("primary"); //트랜잭션 밖
+    }
+
+    @Test
+    @DisplayName("replica 상태 확인에 실패하면 읽기 전용 트랜잭션도 primary로 라우팅")
+    public void fallbackToPrimary() {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, "select count(*) from missing_table", null, Duration.ofSeconds(5));
+        monitor.check();
+        DataSource fallback = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, monitor));
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(fallback));
+        transaction.setReadOnly(true);
+
+        assertThat(monitor.isAvailable()).isFalse();
+        assertThat(transaction.execute(status -> new JdbcTemplate(fallback).queryForObject("select name from db_name", String.class)))
+                .isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("복제 지연이 max-lag 보다 크면 replica를 사용하지 않음")
+    public void replicaLag() {
+        ReplicaLagMonitor lagging = new ReplicaLagMonitor(replica, "select 1", "select 10", Duration.ofSeconds(5));
+        lagging.check();
+        ReplicaLagMonitor upToDate = new ReplicaLagMonitor(replica, "select 1", "select 1", Duration.ofSeconds(5));
+        upToDate.check();
+
+        assertThat(lagging.isAvailable()).isFalse();
+        assertThat(upToDate.isAvailable()).isTrue();
+    }
+
+    private String currentDatabase() {
+        return new JdbcTemplate(dataSource).queryForObject("select name from db_name", String.class);
+    }
+
+    private static DataSource h2(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table db_name (name varchar(20))");
+        jdbcTemplate.update("insert into db_name values (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,56 @@
+package study.querydsl.config;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * 테스트 프로파일(statement-budget.mode: FAIL)에서 등록된 StatementInspector를 거쳐 실제 N+1이 감지되는지 확인
+ * 테스트 트랜잭션이 측정 구간이 됨
+ */
+@SpringBootTest
+@Transactional
+class StatementBudgetTest {
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    EntityManager entityManager;
+
+    @Test
+    @DisplayName("검색 결과의 회원을 한 명씩 다시 조회하면 N+1로 실패")
+    public void nPlusOneFails() {
+        Team team = new Team("budgetTeam");
+        entityManager.persist(team);
+        for (int i = 0; i < 10; i++) {
+            entityManager.persist(new Member("budgetMember" + i, i, team));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("budgetTeam");
+        List<MemberTeamDto> result = memberJpaRepository.searchByWhereParameter(condition);
+        assertThat(result).hasSize(10);
+
+        Throwable thrown = catchThrowable(() -> result.forEach(dto -> memberJpaRepository.findByIdQueryDsl(dto.getMemberId())));
+
+        assertThat(NestedExceptionUtils.getMostSpecificCause(thrown))
+                .isInstanceOf(StatementBudgetExceededException.class)
+                .hasMessageContaining("N+1");
+    }
+}
@@ -0,0 +1,62 @@
+package study.querydsl.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import study.querydsl.repository.MemberSearchResultCache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 캐시는 쓰기 트랜잭션 안에서 사용하지 않으므로 @Transactional 없이 요청
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    MemberSearchResultCache searchResultCache;
+
+    @Test
+    @DisplayName("/v1/members 는 같은 조건으로 다시 요청하면 검색 결과 캐시에서 응답")
+    public void searchMemberV1CacheHitTest() throws Exception {
+        mockMvc.perform(get("/v1/members").param("teamName", "cacheTeam").param("ageGoe", "20"))
+                .andExpect(status().isOk());
+        long hits = searchResultCache.getHitCount();
+
+        mockMvc.perform(get("/v1/members").param("ageGoe", "20").param("teamName", "cacheTeam"))
+                .andExpect(status().isOk());
+
+        assertThat(searchResultCache.getHitCount()).isEqualTo(hits + 1);
+    }
+
+    @Test
+    @DisplayName("잘못된 커서는 500이 아니라 400으로 응답")
+    public void badCursorTest() throws Exception {
+        mockMvc.perform(get("/v1/members/cursor").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+
+        String idCursor = Base64.getUrlEncoder().withoutPadding().encodeToString("ID:1".getBytes(StandardCharsets.UTF_8));
+        mockMvc.perform(get("/v1/members/cursor").param("cursor", idCursor).param("sort", "AGE")) //정렬 기준이 다른 커서
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("size가 1보다 작으면 1건씩 조회")
+    public void nonPositiveSizeTest() throws Exception {
+        mockMvc.perform(get("/v1/members/cursor").param("size", "0"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/v1/members/cursor").param("size", "-5"))
+                .andExpect(status().isOk());
+    }
+}
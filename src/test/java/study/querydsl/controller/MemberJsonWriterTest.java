@@ -0,0 +1,49 @@
+package study.querydsl.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberJsonWriterTest {
+
+    //MemberJsonWriter가 등록되지 않은 기본 직렬화
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("MemberTeamDto 직렬화 결과가 ObjectMapper 기본 직렬화와 같음")
+    public void memberTeamDtoTest() throws IOException {
+        MemberTeamDto withTeam = new MemberTeamDto(1L, "member \"1\"", 10, 2L, "teamA");
+        MemberTeamDto withoutTeam = new MemberTeamDto(3L, "member3", 30, null, null);
+
+        assertThat(write(withTeam)).isEqualTo(objectMapper.writeValueAsString(withTeam));
+        assertThat(write(withoutTeam)).isEqualTo(objectMapper.writeValueAsString(withoutTeam));
+    }
+
+    @Test
+    @DisplayName("MemberDto 직렬화 결과가 ObjectMapper 기본 직렬화와 같음")
+    public void memberDtoTest() throws IOException {
+        MemberDto dto = new MemberDto("member1", 10);
+
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            MemberJsonWriter.write(generator, dto);
+        }
+        assertThat(out.toString()).isEqualTo(objectMapper.writeValueAsString(dto));
+    }
+
+    private String write(MemberTeamDto dto) throws IOException {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            MemberJsonWriter.write(generator, dto);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,120 @@
+package study.querydsl.repository;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * searchPageConcurrently는 다른 스레드의 트랜잭션에서 조회하므로 테스트 트랜잭션(롤백) 안의 데이터가 보이지 않음
+ * 데이터를 커밋해서 넣고 테스트가 끝나면 직접 지움
+ */
+@SpringBootTest
+class MemberConcurrentSearchTest {
+
+    private static final String TEAM_NAME = "concurrentTeam";
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    TransactionTemplate transaction;
+
+    @BeforeEach
+    public void before() {
+        transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            Team team = new Team(TEAM_NAME);
+            entityManager.persist(team);
+            for (int i = 1; i <= 5; i++) {
+                entityManager.persist(new Member("member" + i, i * 10, team));
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        transaction.executeWithoutResult(status -> {
+            entityManager.createQuery("delete from Member m where m.team.id in (select t.id from Team t where t.name = :name)")
+                    .setParameter("name", TEAM_NAME)
+                    .executeUpdate();
+            entityManager.createQuery("delete from Team t where t.name = :name")
+                    .setParameter("name", TEAM_NAME)
+                    .executeUpdate();
+        });
+    }
+
+    @Test
+    @DisplayName("컨텐츠/count 쿼리 동시 실행 페이징 테스트")
+    public void searchPageConcurrentlyTest() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName(TEAM_NAME);
+
+        Slice<MemberTeamDto> first = memberRepository.searchPageConcurrently(condition, PageRequest.of(0, 2));
+        assertThat(first).isInstanceOf(Page.class);
+        assertThat(first.getContent()).hasSize(2);
+        assertThat(first.hasNext()).isTrue();
+        assertThat(((Page<MemberTeamDto>) first).getTotalElements()).isEqualTo(5);
+
+        //마지막 페이지는 count 결과 없이 전체 건수를 계산
+        Slice<MemberTeamDto> last = memberRepository.searchPageConcurrently(condition, PageRequest.of(2, 2));
+        assertThat(last.getContent()).hasSize(1);
+        assertThat(last.hasNext()).isFalse();
+        assertThat(((Page<MemberTeamDto>) last).getTotalElements()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("컨텐츠/count 동시 실행 결과가 순차 실행 페이징과 같음")
+    public void searchPageConcurrentlySameAsSearchPageTest() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName(TEAM_NAME);
+        condition.setAgeGoe(20);
+
+        Page<MemberTeamDto> serial = memberRepository.searchPage(condition, PageRequest.of(1, 2));
+        Slice<MemberTeamDto> concurrent = memberRepository.searchPageConcurrently(condition, PageRequest.of(1, 2));
+
+        assertThat(concurrent.getContent()).extracting("memberId")
+                .containsExactlyElementsOf(serial.getContent().stream().map(MemberTeamDto::getMemberId).toList());
+        assertThat(((Page<MemberTeamDto>) concurrent).getTotalElements()).isEqualTo(serial.getTotalElements());
+    }
+
+    @Test
+    @DisplayName("작업 스레드에서 실행한 컨텐츠/count 쿼리도 호출한 메서드의 문장 수 메트릭에 포함")
+    public void statementMetricsIncludeExecutorThreadsTest() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName(TEAM_NAME);
+        double before = statementsTotal();
+
+        Slice<MemberTeamDto> first = memberRepository.searchPageConcurrently(condition, PageRequest.of(0, 2));
+
+        assertThat(first).isInstanceOf(Page.class); //컨텐츠, count 두 쿼리 모두 실행됨
+        assertThat(statementsTotal() - before).isGreaterThanOrEqualTo(2);
+    }
+
+    private double statementsTotal() {
+        return meterRegistry.find("repository.query.statements").tag("method", "MemberRepositoryImpl.searchPageConcurrently").summaries().stream()
+                .mapToDouble(DistributionSummary::totalAmount)
+                .sum();
+    }
+}
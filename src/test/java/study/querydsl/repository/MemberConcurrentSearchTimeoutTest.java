@@ -0,0 +1,80 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * count 제한 시간을 0으로 두고 스레드를 하나만 써서, count 쿼리가 컨텐츠 쿼리 다음 차례를 기다리는 동안 제한 시간이 지나게 함
+ */
+@SpringBootTest(properties = {"app.search.count-timeout=0ms", "app.search.concurrent.pool-size=1"})
+class MemberConcurrentSearchTimeoutTest {
+
+    private static final String TEAM_NAME = "countTimeoutTeam";
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate transaction;
+
+    @BeforeEach
+    public void before() {
+        transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            Team team = new Team(TEAM_NAME);
+            entityManager.persist(team);
+            for (int i = 1; i <= 5; i++) {
+                entityManager.persist(new Member("member" + i, i * 10, team));
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        transaction.executeWithoutResult(status -> {
+            entityManager.createQuery("delete from Member m where m.team.id in (select t.id from Team t where t.name = :name)")
+                    .setParameter("name", TEAM_NAME)
+                    .executeUpdate();
+            entityManager.createQuery("delete from Team t where t.name = :name")
+                    .setParameter("name", TEAM_NAME)
+                    .executeUpdate();
+        });
+    }
+
+    @Test
+    @DisplayName("count가 제한 시간 안에 끝나지 않으면 전체 건수 없이 Slice로 응답")
+    public void countTimeoutFallsBackToSliceTest() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName(TEAM_NAME);
+
+        Slice<MemberTeamDto> first = memberRepository.searchPageConcurrently(condition, PageRequest.of(0, 2));
+
+        assertThat(first).isNotInstanceOf(Page.class);
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2");
+        assertThat(first.hasNext()).isTrue();
+
+        //마지막 페이지는 count 없이 전체 건수를 알 수 있으므로 제한 시간과 상관없이 Page
+        Slice<MemberTeamDto> last = memberRepository.searchPageConcurrently(condition, PageRequest.of(2, 2));
+        assertThat(last).isInstanceOf(Page.class);
+        assertThat(((Page<MemberTeamDto>) last).getTotalElements()).isEqualTo(5);
+    }
+}
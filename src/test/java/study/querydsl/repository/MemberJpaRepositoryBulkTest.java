@@ -0,0 +1,199 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * bulk 작업은 청크마다 커밋하므로 테스트 트랜잭션 없이 실행하고, 넣은 데이터는 테스트가 끝나면 직접 지움
+ */
+@SpringBootTest
+class MemberJpaRepositoryBulkTest {
+
+    private static final String TEAM_NAME = "bulkTeam";
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    TransactionTemplate transaction;
+    MemberSearchCondition condition;
+
+    @BeforeEach
+    public void before() {
+        transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            Team team = new Team(TEAM_NAME);
+            entityManager.persist(team);
+            for (int i = 1; i <= 10; i++) {
+                entityManager.persist(new Member("bulkMember" + i, i * 10, team));
+            }
+        });
+        condition = new MemberSearchCondition();
+        condition.setTeamName(TEAM_NAME);
+    }
+
+    @AfterEach
+    public void after() {
+        transaction.executeWithoutResult(status -> {
+            entityManager.createQuery("delete from Member m where m.team.id in (select t.id from Team t where t.name = :name)")
+                    .setParameter("name", TEAM_NAME)
+                    .executeUpdate();
+            entityManager.createQuery("delete from Team t where t.name = :name")
+                    .setParameter("name", TEAM_NAME)
+                    .executeUpdate();
+        });
+    }
+
+    @Test
+    @DisplayName("청크 단위 bulk 수정 - 청크마다 진행 상황 전달")
+    public void bulkUpdateTest() {
+        List<BulkOperationProgress> progress = new ArrayList<>();
+
+        BulkOperationResult result = memberJpaRepository.bulkUpdate(condition,
+                update -> update.set(member.age, member.age.add(1)), 3, progress::add);
+
+        assertThat(result.rows()).isEqualTo(10);
+        assertThat(result.chunks()).isEqualTo(4);
+        assertThat(progress).extracting(BulkOperationProgress::chunkRows).containsExactly(3L, 3L, 3L, 1L);
+        assertThat(progress.get(3).totalRows()).isEqualTo(10);
+        assertThat(memberJpaRepository.searchByWhereParameter(condition))
+                .extracting("age")
+                .containsExactlyInAnyOrder(11, 21, 31, 41, 51, 61, 71, 81, 91, 101);
+    }
+
+    @Test
+    @DisplayName("청크 단위 bulk 삭제")
+    public void bulkDeleteTest() {
+        condition.setAgeGoe(50);
+
+        BulkOperationResult result = memberJpaRepository.bulkDelete(condition, 4, progress -> {});
+
+        assertThat(result.rows()).isEqualTo(6);
+        assertThat(result.chunks()).isEqualTo(2);
+        condition.setAgeGoe(null);
+        assertThat(memberJpaRepository.searchByWhereParameter(condition)).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("OSIV 처럼 열려있는 영속성 컨텍스트의 회원은 bulk 수정 후 DB 값으로 동기화")
+    public void bulkUpdateRefreshesManagedMemberTest() {
+        //OpenEntityManagerInViewInterceptor 처럼 요청 동안 유지되는 EntityManager를 바인딩
+        EntityManager viewEntityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(viewEntityManager));
+        try {
+            Member loaded = memberJpaRepository.findByNameQueryDsl("bulkMember1").get(0);
+            assertThat(loaded.getAge()).isEqualTo(10);
+
+            memberJpaRepository.bulkUpdate(condition, update -> update.set(member.age, member.age.add(1)), 5, progress -> {});
+
+            assertThat(loaded.getAge()).isEqualTo(11);
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            viewEntityManager.close();
+        }
+    }
+
+    @Test
+    @DisplayName("OSIV 영속성 컨텍스트에 flush 하지 않은 변경이 있으면 refresh로 잃지 않도록 예외")
+    public void bulkUpdateRejectsDirtyPersistenceContextTest() {
+        EntityManager viewEntityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(viewEntityManager));
+        try {
+            Member loaded = memberJpaRepository.findByNameQueryDsl("bulkMember1").get(0);
+            loaded.setUsername("changedBulkMember1");
+
+            assertThatThrownBy(() -> memberJpaRepository.bulkUpdate(condition,
+                    update -> update.set(member.age, member.age.add(1)), 5, progress -> {}))
+                    .isInstanceOf(IllegalStateException.class);
+            assertThat(loaded.getUsername()).isEqualTo("changedBulkMember1");
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            viewEntityManager.close();
+        }
+        assertThat(memberJpaRepository.searchByWhereParameter(condition)).extracting("age").contains(10); //수정하지 않음
+    }
+
+    @Test
+    @DisplayName("청크의 수정 쿼리는 id를 찾은 뒤에 조건에서 벗어난 회원을 다시 걸러냄")
+    public void bulkPredicateRecheckTest() {
+        List<Long> ids = transaction.execute(status -> new JPAQueryFactory(entityManager)
+                .select(member.id)
+                .from(member)
+                .join(member.team, team)
+                .where(team.name.eq(TEAM_NAME))
+                .fetch());
+        condition.setAgeGoe(50);
+
+        //bulk 작업이 찾은 id 목록에 그 사이 조건에서 벗어난 회원이 섞인 상황 (나이 10~40)
+        Long rows = transaction.execute(status -> new JPAQueryFactory(entityManager)
+                .update(member)
+                .set(member.age, member.age.add(1))
+                .where(member.id.in(ids))
+                .where(MemberSearchPredicates.ofBulk(condition))
+                .execute());
+
+        assertThat(rows).isEqualTo(6);
+        condition.setAgeGoe(null);
+        assertThat(memberJpaRepository.searchByWhereParameter(condition))
+                .extracting("age")
+                .containsExactlyInAnyOrder(10, 20, 30, 40, 51, 61, 71, 81, 91, 101);
+    }
+
+    @Test
+    @DisplayName("트랜잭션 안에서 bulk 작업을 호출하면 예외")
+    public void bulkUpdateInsideTransactionTest() {
+        assertThatThrownBy(() -> transaction.executeWithoutResult(status ->
+                memberJpaRepository.bulkDelete(condition, 10, progress -> {})))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("bulk 작업의 행 수 메트릭은 반환값 1건이 아니라 변경한 행 수")
+    public void bulkRowsMetricTest() {
+        double before = rowsTotal("MemberJpaRepository.bulkUpdate");
+
+        BulkOperationResult result = memberJpaRepository.bulkUpdate(condition,
+                update -> update.set(member.age, member.age.add(1)), 3, progress -> {
+                });
+
+        assertThat(result.rows()).isEqualTo(10);
+        assertThat(rowsTotal("MemberJpaRepository.bulkUpdate") - before).isEqualTo(10);
+    }
+
+    private double rowsTotal(String method) {
+        return meterRegistry.find("repository.query.rows").tag("method", method).summaries().stream()
+                .mapToDouble(DistributionSummary::totalAmount)
+                .sum();
+    }
+}
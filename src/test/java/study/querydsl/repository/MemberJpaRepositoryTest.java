@@ -1,6 +1,14 @@
 package study.querydsl.repository;
 
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,8 +17,10 @@ import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
 import study.querydsl.entity.Team;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -22,9 +32,18 @@ class MemberJpaRepositoryTest {
     @Autowired
     EntityManager entityManager;
 
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
     @Autowired
     MemberJpaRepository memberJpaRepository;
 
+    @Autowired
+    MemberSearchQueryCache searchQueryCache;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
     @Test
     @DisplayName("순수 JPA 기본 테스트")
     public void basicTest() {
@@ -106,4 +125,228 @@ class MemberJpaRepositoryTest {
         List<MemberTeamDto> result = memberJpaRepository.searchByWhereParameter(condition);
         assertThat(result).extracting("username").containsOnly("member4");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("스트리밍 조회 테스트")
+    public void streamByWhereParameterTest() {
+        Team team = new Team("streamTeam");
+        entityManager.persist(team);
+        for (int i = 0; i < 10; i++) {
+            entityManager.persist(new Member("member" + i, i, team));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("streamTeam");
+        condition.setAgeGoe(5);
+
+        List<MemberTeamDto> result = new ArrayList<>();
+        long count = memberJpaRepository.streamByWhereParameter(condition, result::add);
+
+        assertThat(count).isEqualTo(5);
+        assertThat(result).extracting("username").containsOnly("member5", "member6", "member7", "member8", "member9");
+    }
+
+    @Test
+    @DisplayName("쿼리 모양별 JPQL 캐시 테스트")
+    public void searchQueryCacheTest() {
+        Team team = new Team("shapeTeam");
+        entityManager.persist(team);
+        entityManager.persist(new Member("member1", 10, team));
+        entityManager.persist(new Member("member2", 20, team));
+
+        MemberSearchCondition first = new MemberSearchCondition();
+        first.setTeamName("shapeTeam");
+        first.setAgeGoe(15);
+        memberJpaRepository.searchByWhereParameter(first); //처음 보는 모양이면 miss
+
+        long hitCount = searchQueryCache.getHitCount();
+        long missCount = searchQueryCache.getMissCount();
+
+        //값만 다르고 모양이 같은 조건은 캐시된 JPQL을 재사용
+        MemberSearchCondition sameShape = new MemberSearchCondition();
+        sameShape.setTeamName("shapeTeam");
+        sameShape.setAgeGoe(5);
+        List<MemberTeamDto> result = memberJpaRepository.searchByWhereParameter(sameShape);
+
+        assertThat(result).extracting("username").containsOnly("member1", "member2");
+        assertThat(searchQueryCache.getHitCount()).isEqualTo(hitCount + 1);
+        assertThat(searchQueryCache.getMissCount()).isEqualTo(missCount);
+    }
+
+    @Test
+    @DisplayName("메서드, 쿼리 모양별 메트릭 테스트")
+    public void queryMetricsTest() {
+        Team team = new Team("metricTeam");
+        entityManager.persist(team);
+        entityManager.persist(new Member("member1", 10, team));
+        entityManager.persist(new Member("member2", 20, team));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("metricTeam");
+        memberJpaRepository.searchByWhereParameter(condition);
+
+        DistributionSummary rows = meterRegistry.get("repository.query.rows")
+                .tag("method", "MemberJpaRepository.searchByWhereParameter")
+                .tag("shape", "teamName")
+                .summary();
+        assertThat(rows.count()).isGreaterThanOrEqualTo(1);
+        assertThat(rows.max()).isGreaterThanOrEqualTo(2);
+        assertThat(meterRegistry.get("repository.query")
+                .tag("method", "MemberJpaRepository.searchByWhereParameter")
+                .tag("shape", "teamName")
+                .timer().count()).isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.get("repository.query.statements")
+                .tag("method", "MemberJpaRepository.searchByWhereParameter")
+                .summary().max()).isGreaterThanOrEqualTo(1); //auto flush된 insert + select
+    }
+
+    @Test
+    @DisplayName("행 수 메트릭 - 스트리밍은 처리한 행 수, 스크롤은 반환 시점에 알 수 없으므로 기록하지 않음")
+    public void rowsMetricsByReturnTypeTest() {
+        Team team = new Team("metricTeam");
+        entityManager.persist(team);
+        entityManager.persist(new Member("member1", 10, team));
+        entityManager.persist(new Member("member2", 20, team));
+        entityManager.flush();
+        entityManager.clear();
+
+        double before = rowsTotal("MemberJpaRepository.streamAll");
+        long count = memberJpaRepository.streamAll(member -> {
+        });
+        assertThat(count).isGreaterThanOrEqualTo(2);
+        assertThat(rowsTotal("MemberJpaRepository.streamAll") - before).isEqualTo(count);
+
+        try (ScrollIterator<Member> members = memberJpaRepository.scrollAll(10)) {
+            members.forEachRemaining(member -> {
+            });
+        }
+        assertThat(meterRegistry.find("repository.query.rows").tag("method", "MemberJpaRepository.scrollAll").summaries()).isEmpty();
+        assertThat(meterRegistry.get("repository.query").tag("method", "MemberJpaRepository.scrollAll").timer().count()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("읽기 전용 조회 - 스냅샷이 없어서 변경해도 update 하지 않음")
+    public void readOnlyQueryModeTest() {
+        Team team = new Team("readOnlyTeam");
+        entityManager.persist(team);
+        entityManager.persist(new Member("member1", 10, team));
+        entityManager.persist(new Member("member2", 20, team));
+        entityManager.flush();
+        entityManager.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("readOnlyTeam");
+        List<Member> result = memberJpaRepository.searchMemberByWhereParameter(condition, EntityQueryMode.READ_ONLY);
+
+        Session session = entityManager.unwrap(Session.class);
+        assertThat(result).extracting("username").containsOnly("member1", "member2");
+        assertThat(result).allMatch(session::isReadOnly);
+
+        result.get(0).setUsername("changed");
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Member> managed = memberJpaRepository.searchMemberByWhereParameter(condition);
+        assertThat(managed).extracting("username").containsOnly("member1", "member2");
+        assertThat(managed).noneMatch(session::isReadOnly);
+    }
+
+    @Test
+    @DisplayName("읽기 전용 조회는 쿼리 전에 flush 하지 않음")
+    public void readOnlyQueryModeFlushTest() {
+        memberJpaRepository.save(new Member("member1", 10));
+
+        assertThat(memberJpaRepository.findAllQueryDsl(EntityQueryMode.READ_ONLY)).isEmpty(); //FlushModeType.COMMIT
+        assertThat(memberJpaRepository.findAll(EntityQueryMode.MANAGED)).hasSize(1); //auto flush
+    }
+
+    @Test
+    @DisplayName("forward-only 스크롤 - 다음 행으로 넘어가면 이전 회원을 detach")
+    public void scrollTest() {
+        Team team = new Team("scrollTeam");
+        entityManager.persist(team);
+        for (int i = 0; i < 10; i++) {
+            entityManager.persist(new Member("member" + i, i, team));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        JPAQuery<Member> query = new JPAQueryFactory(entityManager)
+                .selectFrom(QMember.member)
+                .where(QMember.member.team.name.eq("scrollTeam"))
+                .orderBy(QMember.member.age.asc());
+
+        List<String> usernames = new ArrayList<>();
+        try (ScrollIterator<Member> members = memberJpaRepository.scroll(query, 3)) {
+            Member first = members.next();
+            assertThat(entityManager.contains(first)).isTrue();
+            usernames.add(first.getUsername());
+            while (members.hasNext()) {
+                usernames.add(members.next().getUsername());
+            }
+            assertThat(entityManager.contains(first)).isFalse();
+        }
+
+        assertThat(usernames).hasSize(10).startsWith("member0", "member1").endsWith("member9");
+    }
+
+    @Test
+    @DisplayName("스크롤 전에 이미 영속 상태였던 회원은 detach 하지 않아서 수정 내용을 잃지 않음")
+    public void scrollKeepsManagedMemberTest() {
+        Team team = new Team("scrollTeam");
+        entityManager.persist(team);
+        for (int i = 0; i < 5; i++) {
+            entityManager.persist(new Member("member" + i, i, team));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Member dirty = memberJpaRepository.findByNameQueryDsl("member2").get(0);
+
+        JPAQuery<Member> query = new JPAQueryFactory(entityManager)
+                .selectFrom(QMember.member)
+                .where(QMember.member.team.name.eq("scrollTeam"))
+                .orderBy(QMember.member.username.asc());
+        try (ScrollIterator<Member> members = memberJpaRepository.scroll(query, 2)) {
+            while (members.hasNext()) {
+                Member row = members.next();
+                if (row == dirty) {
+                    row.setAge(100); //auto flush 이후의 변경이라 아직 flush 되지 않음
+                }
+            }
+        }
+
+        assertThat(entityManager.contains(dirty)).isTrue();
+        entityManager.flush();
+        entityManager.clear();
+        assertThat(memberJpaRepository.findByNameQueryDsl("member2").get(0).getAge()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("id 목록 조회 - 영속성 컨텍스트에 없는 회원만 in 절 한 번으로 조회하고 요청 순서대로 반환")
+    public void findAllByIdsTest() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Member member = new Member("member" + i, i);
+            entityManager.persist(member);
+            ids.add(member.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Member cached = entityManager.find(Member.class, ids.get(2));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<Member> result = memberJpaRepository.findAllByIds(List.of(ids.get(4), ids.get(2), -1L, ids.get(0), ids.get(2)));
+
+        assertThat(result).extracting("username").containsExactly("member4", "member2", "member0", "member2");
+        assertThat(result.get(1)).isSameAs(cached);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1); //member4, -1, member0 을 4개로 패딩한 in 절
+    }
+
+    private double rowsTotal(String method) {
+        return meterRegistry.find("repository.query.rows").tag("method", method).summaries().stream()
+                .mapToDouble(DistributionSummary::totalAmount)
+                .sum();
+    }
+}
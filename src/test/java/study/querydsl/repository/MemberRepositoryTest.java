@@ -1,11 +1,19 @@
 package study.querydsl.repository;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.transaction.Transactional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.CursorPage;
+import study.querydsl.dto.MemberCursorSort;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
@@ -23,6 +31,8 @@ class MemberRepositoryTest {
     MemberRepository memberRepository;
     @Autowired
     EntityManager entityManager;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
 
     @Test
     @DisplayName("순수 JPA 기본 테스트")
@@ -62,4 +72,112 @@ class MemberRepositoryTest {
         List<MemberTeamDto> result = memberRepository.searchMemberTeam(condition);
         assertThat(result).extracting("username").containsExactly("member4");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("커서(keyset) 페이징 테스트")
+    public void searchMemberTeamByCursorTest() {
+        Team team = new Team("cursorTeam");
+        entityManager.persist(team);
+        Member member1 = new Member("member1", 40, team);
+        Member member2 = new Member("member2", 30, team);
+        Member member3 = new Member("member3", 20, team);
+        Member member4 = new Member("member4", 10, team);
+        entityManager.persist(member1);
+        entityManager.persist(member2);
+        entityManager.persist(member3);
+        entityManager.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("cursorTeam");
+
+        CursorPage<MemberTeamDto> first = memberRepository.searchMemberTeamByCursor(condition, MemberCursorSort.ID, null, 3);
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(first.isHasNext()).isTrue();
+
+        CursorPage<MemberTeamDto> second = memberRepository.searchMemberTeamByCursor(condition, MemberCursorSort.ID, first.getNextCursor(), 3);
+        assertThat(second.getContent()).extracting("username").containsExactly("member4");
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+
+        //나이 오름차순 정렬
+        CursorPage<MemberTeamDto> byAge = memberRepository.searchMemberTeamByCursor(condition, MemberCursorSort.AGE, null, 2);
+        assertThat(byAge.getContent()).extracting("username").containsExactly("member4", "member3");
+        CursorPage<MemberTeamDto> byAgeNext = memberRepository.searchMemberTeamByCursor(condition, MemberCursorSort.AGE, byAge.getNextCursor(), 2);
+        assertThat(byAgeNext.getContent()).extracting("username").containsExactly("member2", "member1");
+        assertThat(byAgeNext.isHasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("컨텐츠와 count 쿼리를 분리한 페이징 테스트")
+    public void searchPageTest() {
+        Team team = new Team("pageTeam");
+        entityManager.persist(team);
+        for (int i = 1; i <= 5; i++) {
+            entityManager.persist(new Member("member" + i, i * 10, team));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("pageTeam");
+
+        Page<MemberTeamDto> first = memberRepository.searchPage(condition, PageRequest.of(0, 3));
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(first.getTotalElements()).isEqualTo(5);
+        assertThat(first.getTotalPages()).isEqualTo(2);
+
+        //마지막 페이지는 count 쿼리 없이 offset + 컨텐츠 크기로 전체 건수를 계산
+        Page<MemberTeamDto> last = memberRepository.searchPage(condition, PageRequest.of(1, 3));
+        assertThat(last.getContent()).extracting("username").containsExactly("member4", "member5");
+        assertThat(last.getTotalElements()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("페이징은 Pageable 정렬 뒤에 member.id로 순서를 고정")
+    public void searchPageSortTest() {
+        Team team = new Team("pageTeam");
+        entityManager.persist(team);
+        for (int i = 1; i <= 5; i++) {
+            entityManager.persist(new Member("member" + i, i % 2 == 0 ? 20 : 10, team)); //나이가 같은 회원이 여러 명
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("pageTeam");
+        PageRequest byAgeDesc = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "age"));
+
+        Page<MemberTeamDto> first = memberRepository.searchPage(condition, byAgeDesc);
+        Page<MemberTeamDto> second = memberRepository.searchPage(condition, byAgeDesc.next());
+        assertThat(first.getContent()).extracting("username").containsExactly("member2", "member4", "member1");
+        assertThat(second.getContent()).extracting("username").containsExactly("member3", "member5");
+    }
+
+    @Test
+    @DisplayName("짧은 첫 페이지/마지막 페이지는 count 쿼리를 생략하고, 팀명 조건이 없으면 count 쿼리에서 join을 제거")
+    public void searchPageCountQueryTest() {
+        Team team = new Team("pageTeam");
+        entityManager.persist(team);
+        for (int i = 1; i <= 5; i++) {
+            entityManager.persist(new Member("member" + i, i * 10, team));
+        }
+        entityManager.flush(); //auto flush가 쿼리 수에 섞이지 않도록
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(10);
+
+        statistics.clear();
+        assertThat(memberRepository.searchPage(condition, PageRequest.of(0, 10)).getTotalElements()).isEqualTo(5);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1); //첫 페이지가 페이지 크기보다 작음
+
+        statistics.clear();
+        assertThat(memberRepository.searchPage(condition, PageRequest.of(1, 3)).getTotalElements()).isEqualTo(5);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1); //마지막 페이지
+
+        statistics.clear();
+        assertThat(memberRepository.searchPage(condition, PageRequest.of(0, 3)).getTotalElements()).isEqualTo(5);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getQueries())
+                .filteredOn(query -> query.contains("count("))
+                .singleElement()
+                .asString()
+                .doesNotContain("join");
+    }
+}
@@ -0,0 +1,127 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.config.SqlStatement;
+import study.querydsl.config.SqlStatementListener;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 검색 쿼리 모양별로 실제 실행되는 SQL에 H2 EXPLAIN을 실행해서 인덱스를 타는지 확인
+ * 조건이 없는 모양(none)은 전체 조회라서 테이블 스캔이 맞으므로 나머지 15가지만 확인
+ */
+@SpringBootTest
+@Transactional
+class MemberSearchIndexTest {
+
+    @Autowired
+    MemberSearchQueryCache searchQueryCache;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    CapturingListener capturingListener;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        CapturingListener capturingListener() {
+            return new CapturingListener();
+        }
+    }
+
+    static class CapturingListener implements SqlStatementListener {
+        private final List<String> selects = new ArrayList<>();
+
+        @Override
+        public void onStatement(SqlStatement statement) {
+            if (statement.isSelect() && !statement.isSequenceCall()) {
+                selects.add(statement.getSql());
+            }
+        }
+    }
+
+    @BeforeEach
+    public void before() {
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Team team = new Team("indexTeam" + i);
+            entityManager.persist(team);
+            teams.add(team);
+        }
+        for (int i = 0; i < 200; i++) {
+            entityManager.persist(new Member("indexMember" + i, i % 100, teams.get(i % teams.size())));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("검색 쿼리 모양별 실행 계획이 인덱스를 사용")
+    public void searchShapesUseIndexTest() {
+        for (int shape = 1; shape < MemberSearchShape.SHAPE_COUNT; shape++) {
+            MemberSearchCondition condition = condition(shape);
+            capturingListener.selects.clear();
+            searchQueryCache.searchMemberTeam(entityManager, condition);
+            assertThat(capturingListener.selects).hasSize(1);
+
+            String plan = jdbcTemplate.queryForObject("EXPLAIN " + capturingListener.selects.get(0), String.class,
+                    parameters(shape, condition));
+
+            assertThat(plan)
+                    .as("%s%n%s", MemberSearchShape.name(shape), plan)
+                    .doesNotContainIgnoringCase("tableScan");
+        }
+    }
+
+    private static MemberSearchCondition condition(int shape) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        if (MemberSearchShape.has(shape, MemberSearchShape.USERNAME)) {
+            condition.setUsername("indexMember1");
+        }
+        if (MemberSearchShape.has(shape, MemberSearchShape.TEAM_NAME)) {
+            condition.setTeamName("indexTeam1");
+        }
+        if (MemberSearchShape.has(shape, MemberSearchShape.AGE_GOE)) {
+            condition.setAgeGoe(20);
+        }
+        if (MemberSearchShape.has(shape, MemberSearchShape.AGE_LOE)) {
+            condition.setAgeLoe(30);
+        }
+        return condition;
+    }
+
+    //SQL의 ? 순서는 MemberSearchQueryCache와 같이 회원명, 팀명, ageGoe, ageLoe
+    private static Object[] parameters(int shape, MemberSearchCondition condition) {
+        List<Object> parameters = new ArrayList<>();
+        if (MemberSearchShape.has(shape, MemberSearchShape.USERNAME)) {
+            parameters.add(condition.getUsername());
+        }
+        if (MemberSearchShape.has(shape, MemberSearchShape.TEAM_NAME)) {
+            parameters.add(condition.getTeamName());
+        }
+        if (MemberSearchShape.has(shape, MemberSearchShape.AGE_GOE)) {
+            parameters.add(condition.getAgeGoe());
+        }
+        if (MemberSearchShape.has(shape, MemberSearchShape.AGE_LOE)) {
+            parameters.add(condition.getAgeLoe());
+        }
+        return parameters.toArray();
+    }
+}
@@ -0,0 +1,99 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import study.querydsl.config.SqlStatement;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberSearchResultCacheTest {
+
+    MemberSearchResultCache cache = new MemberSearchResultCache(2, Duration.ofMinutes(1));
+    AtomicInteger loadCount = new AtomicInteger();
+    Supplier<List<MemberTeamDto>> loader = () -> {
+        loadCount.incrementAndGet();
+        return List.of(new MemberTeamDto(1L, "member1", 10, 1L, "teamA"));
+    };
+
+    @Test
+    @DisplayName("정규화된 조건이 같으면 캐시된 결과를 사용")
+    public void hitByNormalizedCondition() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        MemberSearchCondition sameCondition = new MemberSearchCondition();
+        sameCondition.setTeamName("teamA");
+        sameCondition.setUsername(""); //빈 문자열은 조건이 없는 것과 같음
+
+        cache.get(condition, loader);
+        List<MemberTeamDto> result = cache.get(sameCondition, loader);
+
+        assertThat(loadCount.get()).isEqualTo(1);
+        assertThat(result).extracting("username").containsExactly("member1");
+        assertThat(cache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("member, team 테이블을 변경하는 SQL이 실행되면 무효화")
+    public void invalidateOnWrite() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        cache.get(condition, loader);
+        cache.onStatement(new SqlStatement("select m1_0.member_id from member m1_0"));
+        cache.onStatement(new SqlStatement("insert into hello (id) values (?)"));
+        cache.get(condition, loader);
+        assertThat(loadCount.get()).isEqualTo(1);
+
+        cache.onStatement(new SqlStatement("update member m1_0 set username=? where m1_0.age<?")); //벌크 update
+        cache.get(condition, loader);
+        assertThat(loadCount.get()).isEqualTo(2);
+
+        cache.onStatement(new SqlStatement("insert into team (name,team_id) values (?,?)"));
+        cache.get(condition, loader);
+        assertThat(loadCount.get()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("최대 크기를 넘으면 가장 오래 사용하지 않은 항목을 제거")
+    public void evictByMaxSize() {
+        for (int age = 0; age < 3; age++) {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setAgeGoe(age);
+            cache.get(condition, loader);
+        }
+
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("TTL이 지나면 다시 조회")
+    public void expireByTtl() {
+        MemberSearchResultCache noTtlCache = new MemberSearchResultCache(10, Duration.ZERO);
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        noTtlCache.get(condition, loader);
+        noTtlCache.get(condition, loader);
+
+        assertThat(loadCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("무효화 후 replica 지연 시간 동안 조회한 결과는 캐시에 넣지 않음")
+    public void noRefillWithinReplicaLag() {
+        MemberSearchResultCache replicaCache = new MemberSearchResultCache(10, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        replicaCache.invalidateAll();
+        replicaCache.get(condition, loader);
+        replicaCache.get(condition, loader);
+
+        assertThat(loadCount.get()).isEqualTo(2);
+        assertThat(replicaCache.size()).isZero();
+    }
+}
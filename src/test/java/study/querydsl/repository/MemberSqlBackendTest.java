@@ -0,0 +1,124 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.UsernameMatch;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+
+/**
+ * app.search.backend=sql 로 띄워서 MemberRepository.searchMemberTeam 이 querydsl-sql(MemberSqlSearch)로 조회하는지 확인
+ * PREFIX/CONTAINS 는 커밋된 회원만 반영하는 회원명 인덱스를 거치므로 데이터를 커밋하고, 테스트가 끝나면 직접 지움
+ */
+@SpringBootTest(properties = "app.search.backend=sql")
+class MemberSqlBackendTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @SpyBean
+    MemberSqlSearch memberSqlSearch;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    MemberUsernameIndex usernameIndex;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate transaction;
+    List<Long> teamIds = new ArrayList<>();
+    List<Long> memberIds = new ArrayList<>();
+
+    @BeforeEach
+    public void before() {
+        transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            Team teamA = new Team("sqlBackendTeamA");
+            Team teamB = new Team("sqlBackendTeamB");
+            entityManager.persist(teamA);
+            entityManager.persist(teamB);
+            teamIds.add(teamA.getId());
+            teamIds.add(teamB.getId());
+            persist(new Member("sqlBackend1", 10, teamA));
+            persist(new Member("sqlBackend2", 20, teamA));
+            persist(new Member("sqlBackend3", 30, teamB));
+            persist(new Member("otherSqlBackend4", 40)); //팀 없음
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        transaction.executeWithoutResult(status -> {
+            memberIds.forEach(id -> entityManager.remove(entityManager.find(Member.class, id)));
+            teamIds.forEach(id -> entityManager.remove(entityManager.find(Team.class, id)));
+        });
+    }
+
+    @Test
+    @DisplayName("sql 백엔드로 조회한 결과가 JPA 검색과 같음")
+    public void exactAndTeamTest() {
+        MemberSearchCondition team = new MemberSearchCondition();
+        team.setTeamName("sqlBackendTeamA");
+        assertThat(search(team)).extracting("username").containsExactlyInAnyOrder("sqlBackend1", "sqlBackend2");
+
+        MemberSearchCondition noTeam = new MemberSearchCondition();
+        noTeam.setUsername("otherSqlBackend4");
+        assertThat(search(noTeam)).extracting("teamId").containsExactly((Object) null); //left join
+
+        verify(memberSqlSearch, atLeastOnce()).searchMemberTeam(any());
+    }
+
+    @Test
+    @DisplayName("sql 백엔드의 PREFIX/CONTAINS 검색은 회원명 인덱스로 찾은 회원만 조회")
+    public void prefixAndContainsTest() {
+        assertThat(usernameIndex.find(UsernameMatch.PREFIX, "sqlBackend")).containsExactlyInAnyOrderElementsOf(memberIds.subList(0, 3));
+
+        MemberSearchCondition prefix = new MemberSearchCondition();
+        prefix.setUsername("sqlBackend");
+        prefix.setUsernameMatch(UsernameMatch.PREFIX);
+        assertThat(search(prefix)).extracting("username").containsExactlyInAnyOrder("sqlBackend1", "sqlBackend2", "sqlBackend3");
+
+        MemberSearchCondition contains = new MemberSearchCondition();
+        contains.setUsername("SqlBackend");
+        contains.setUsernameMatch(UsernameMatch.CONTAINS);
+        assertThat(search(contains)).extracting("username").containsExactly("otherSqlBackend4");
+
+        MemberSearchCondition containsWithTeam = new MemberSearchCondition();
+        containsWithTeam.setUsername("Backend");
+        containsWithTeam.setUsernameMatch(UsernameMatch.CONTAINS);
+        containsWithTeam.setTeamName("sqlBackendTeamB");
+        assertThat(search(containsWithTeam)).extracting("username").containsExactly("sqlBackend3");
+
+        verify(memberSqlSearch, atLeastOnce()).searchMemberTeam(any());
+    }
+
+    private List<MemberTeamDto> search(MemberSearchCondition condition) {
+        List<MemberTeamDto> result = memberRepository.searchMemberTeam(condition);
+        assertThat(result).containsExactlyInAnyOrderElementsOf(memberJpaRepository.searchByWhereParameter(condition));
+        return result;
+    }
+
+    private void persist(Member member) {
+        entityManager.persist(member);
+        memberIds.add(member.getId());
+    }
+}
@@ -0,0 +1,82 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberSqlSearchTest {
+
+    @Autowired
+    MemberSqlSearch memberSqlSearch;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    EntityManager entityManager;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("sqlTeamA");
+        Team teamB = new Team("sqlTeamB");
+        entityManager.persist(teamA);
+        entityManager.persist(teamB);
+        entityManager.persist(new Member("sqlMember1", 10, teamA));
+        entityManager.persist(new Member("sqlMember2", 20, teamA));
+        entityManager.persist(new Member("sqlMember3", 30, teamB));
+        entityManager.persist(new Member("sqlMember4", 40, teamB));
+        entityManager.persist(new Member("sqlMember5", 50)); //팀 없음
+        //flush 하지 않음 - MemberSqlSearch가 직접 flush 해야 보임
+    }
+
+    @Test
+    @DisplayName("JPA 검색과 같은 결과를 조회")
+    public void sameResultAsJpa() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("sqlTeamB");
+        condition.setAgeGoe(35);
+        assertSameResult(condition);
+
+        MemberSearchCondition noTeam = new MemberSearchCondition();
+        noTeam.setUsername("sqlMember5");
+        List<MemberTeamDto> result = assertSameResult(noTeam);
+        assertThat(result).extracting("teamId").containsExactly((Object) null); //left join
+
+        MemberSearchCondition age = new MemberSearchCondition();
+        age.setAgeGoe(20);
+        age.setAgeLoe(30);
+        assertSameResult(age);
+    }
+
+    @Test
+    @DisplayName("같은 트랜잭션에서 저장하고 flush 하지 않은 회원도 조회")
+    public void flushBeforeQuery() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("sqlTeamA");
+
+        List<MemberTeamDto> result = memberSqlSearch.searchMemberTeam(condition);
+
+        assertThat(result).extracting("username").containsExactlyInAnyOrder("sqlMember1", "sqlMember2");
+        assertThat(result).extracting("teamName").containsOnly("sqlTeamA");
+    }
+
+    private List<MemberTeamDto> assertSameResult(MemberSearchCondition condition) {
+        List<MemberTeamDto> sql = memberSqlSearch.searchMemberTeam(condition);
+        List<MemberTeamDto> jpa = memberJpaRepository.searchByWhereParameter(condition);
+        assertThat(sql).isNotEmpty();
+        assertThat(sql).containsExactlyInAnyOrderElementsOf(jpa);
+        return sql;
+    }
+}
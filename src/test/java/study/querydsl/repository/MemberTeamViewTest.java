@@ -0,0 +1,185 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.config.SqlStatement;
+import study.querydsl.config.SqlStatementListener;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 읽기 모델은 커밋 직전에 갱신되므로 테스트 트랜잭션 없이 커밋하면서 확인하고, 넣은 데이터는 직접 지움
+ * 한 트랜잭션의 변경이 많을 때 전체를 다시 만드는 경로도 확인하도록 max-pending-changes 를 작게 설정
+ */
+@SpringBootTest(properties = {
+        "app.read-model.enabled=true",
+        "app.read-model.max-pending-changes=3"
+})
+class MemberTeamViewTest {
+
+    private static final String TEAM_NAME = "viewTeam";
+    private static final String RENAMED = "viewTeamRenamed";
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberTeamViewMaintenance maintenance;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    CapturingListener capturingListener;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        CapturingListener capturingListener() {
+            return new CapturingListener();
+        }
+    }
+
+    //읽기 모델 갱신 SQL도 StatementInspector를 지나가는지 확인
+    static class CapturingListener implements SqlStatementListener {
+        private final List<String> viewWrites = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onStatement(SqlStatement statement) {
+            if ("member_team_view".equals(statement.getMutatedTable())) {
+                viewWrites.add(statement.getSql());
+            }
+        }
+    }
+
+    TransactionTemplate transaction;
+    Long teamId;
+
+    @BeforeEach
+    public void before() {
+        transaction = new TransactionTemplate(transactionManager);
+        maintenance.rebuild(); //다른 테스트가 읽기 모델 없이 커밋한 회원도 포함
+        transaction.executeWithoutResult(status -> {
+            Team team = new Team(TEAM_NAME);
+            entityManager.persist(team);
+            entityManager.persist(new Member("viewMember1", 10, team));
+            entityManager.persist(new Member("viewMember2", 20, team));
+            teamId = team.getId();
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        transaction.executeWithoutResult(status -> {
+            entityManager.createQuery("delete from Member m where m.team.id = :teamId")
+                    .setParameter("teamId", teamId)
+                    .executeUpdate();
+            entityManager.createQuery("delete from Team t where t.id = :teamId")
+                    .setParameter("teamId", teamId)
+                    .executeUpdate();
+        });
+        maintenance.rebuild();
+    }
+
+    @Test
+    @DisplayName("회원 저장/수정/삭제가 읽기 모델에 반영되고 join 조회와 결과가 같음")
+    public void memberChangesTest() {
+        assertThat(search(TEAM_NAME)).extracting("username").containsExactlyInAnyOrder("viewMember1", "viewMember2");
+
+        transaction.executeWithoutResult(status -> {
+            List<Member> members = memberRepository.findByUsername("viewMember1");
+            members.get(0).setAge(11);
+            memberRepository.findByUsername("viewMember2").forEach(entityManager::remove);
+        });
+
+        List<MemberTeamDto> result = search(TEAM_NAME);
+        assertThat(result).extracting("username").containsExactly("viewMember1");
+        assertThat(result).extracting("age").containsExactly(11);
+        assertThat(result).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(joinSearch(TEAM_NAME));
+        assertThat(maintenance.verify().isConsistent()).isTrue();
+    }
+
+    @Test
+    @DisplayName("팀 이름을 바꾸면 소속 회원 행의 팀 이름도 바뀜")
+    public void teamRenameTest() {
+        transaction.executeWithoutResult(status -> entityManager.find(Team.class, teamId).setName(RENAMED));
+
+        assertThat(search(TEAM_NAME)).isEmpty();
+        assertThat(search(RENAMED)).extracting("teamName").containsOnly(RENAMED).hasSize(2);
+        assertThat(maintenance.verify().isConsistent()).isTrue();
+
+        transaction.executeWithoutResult(status -> entityManager.find(Team.class, teamId).setName(TEAM_NAME));
+    }
+
+    @Test
+    @DisplayName("읽기 모델 갱신 SQL도 SqlStatementListener에 전달됨")
+    public void viewWritesGoThroughInspectorTest() {
+        capturingListener.viewWrites.clear();
+
+        transaction.executeWithoutResult(status -> memberRepository.findByUsername("viewMember1").get(0).setAge(12));
+
+        assertThat(capturingListener.viewWrites).hasSize(2); //delete, insert-select
+        assertThat(search(TEAM_NAME)).extracting("age").containsExactlyInAnyOrder(12, 20);
+    }
+
+    @Test
+    @DisplayName("max-pending-changes 를 넘게 바뀐 트랜잭션은 회원 id를 모으지 않고 커밋 직전에 전체를 다시 만듦")
+    public void overflowRebuildsAllTest() {
+        capturingListener.viewWrites.clear();
+
+        transaction.executeWithoutResult(status -> {
+            Team team = entityManager.find(Team.class, teamId);
+            for (int i = 3; i <= 7; i++) {
+                entityManager.persist(new Member("viewMember" + i, i * 10, team));
+            }
+        });
+
+        assertThat(capturingListener.viewWrites).containsExactly(MemberTeamViewMaintenance.DELETE_ALL_SQL, MemberTeamViewMaintenance.INSERT_ALL_SQL);
+        assertThat(search(TEAM_NAME)).hasSize(7);
+        assertThat(maintenance.verify().isConsistent()).isTrue();
+    }
+
+    @Test
+    @DisplayName("이벤트를 거치지 않은 변경은 검사기가 찾아내고 rebuild로 복구")
+    public void verifyAndRebuildTest() {
+        transaction.executeWithoutResult(status -> entityManager
+                .createNativeQuery("update member_team_view set age = age + 1 where team_id = :teamId")
+                .setParameter("teamId", teamId)
+                .executeUpdate());
+
+        MemberTeamViewMaintenance.ConsistencyReport report = maintenance.verify();
+        assertThat(report.mismatched()).isEqualTo(2);
+        assertThat(report.isConsistent()).isFalse();
+
+        maintenance.rebuild();
+        assertThat(maintenance.verify().isConsistent()).isTrue();
+    }
+
+    private List<MemberTeamDto> search(String teamName) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName(teamName);
+        return memberRepository.searchMemberTeamFromReadModel(condition);
+    }
+
+    private List<MemberTeamDto> joinSearch(String teamName) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName(teamName);
+        return memberRepository.searchMemberTeam(condition);
+    }
+}
@@ -0,0 +1,89 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.UsernameMatch;
+import study.querydsl.entity.Member;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 이벤트 없이 바뀐 회원명을 rebuild가 맞추는지, 변경이 많은 트랜잭션은 변경을 모으지 않고 stale 로 표시하는지 확인
+ * 인덱스는 커밋된 변경만 반영하므로 트랜잭션을 커밋하고, 스케줄러가 중간에 rebuild 하지 않도록 주기를 길게 설정
+ */
+@SpringBootTest(properties = {
+        "app.search.username-index.max-pending-changes=3",
+        "app.search.username-index.stale-check-interval-ms=600000"
+})
+class MemberUsernameIndexTest {
+
+    @Autowired
+    MemberUsernameIndex usernameIndex;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    List<Long> memberIds = new ArrayList<>();
+
+    @AfterEach
+    public void after() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> entityManager
+                .createQuery("delete from Member m where m.id in :ids")
+                .setParameter("ids", memberIds)
+                .executeUpdate());
+        usernameIndex.rebuild();
+    }
+
+    @Test
+    @DisplayName("이벤트 없이 바뀐 회원명은 rebuild 후에 검색됨")
+    public void rebuildTest() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> persistMembers("indexedMember", 1));
+        Long memberId = memberIds.get(0);
+        assertThat(usernameIndex.find(UsernameMatch.PREFIX, "indexedMember")).contains(memberId);
+
+        //다른 인스턴스나 SQL로 직접 바꾼 것처럼 하이버네이트 이벤트 없이 수정
+        transaction.executeWithoutResult(status -> entityManager.createNativeQuery("update member set username = ? where member_id = ?")
+                .setParameter(1, "renamedMember")
+                .setParameter(2, memberId)
+                .executeUpdate());
+        assertThat(usernameIndex.find(UsernameMatch.PREFIX, "renamedMember")).doesNotContain(memberId);
+
+        usernameIndex.rebuild();
+
+        assertThat(usernameIndex.find(UsernameMatch.PREFIX, "renamedMember")).contains(memberId);
+        assertThat(usernameIndex.find(UsernameMatch.CONTAINS, "amedMemb")).contains(memberId);
+    }
+
+    @Test
+    @DisplayName("max-pending-changes 를 넘는 트랜잭션은 커밋 후 stale 로 표시되고 그동안은 like로 조회")
+    public void overflowMarksStaleTest() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> persistMembers("bulkIndexedMember", 5));
+
+        assertThat(usernameIndex.isStale()).isTrue();
+        assertThat(usernameIndex.find(UsernameMatch.PREFIX, "bulkIndexedMember")).isNull();
+
+        usernameIndex.rebuild();
+
+        assertThat(usernameIndex.isStale()).isFalse();
+        assertThat(usernameIndex.find(UsernameMatch.PREFIX, "bulkIndexedMember")).containsExactlyInAnyOrderElementsOf(memberIds);
+    }
+
+    private void persistMembers(String prefix, int count) {
+        for (int i = 0; i < count; i++) {
+            Member member = new Member(prefix + i, 10);
+            entityManager.persist(member);
+            memberIds.add(member.getId());
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 2차 캐시는 트랜잭션(영속성 컨텍스트)을 넘어서 공유되므로 트랜잭션을 나눠서 확인하고, 넣은 데이터는 직접 지움
+ */
+@SpringBootTest
+class TeamRepositoryTest {
+
+    private static final String TEAM_NAME = "cachedTeam";
+
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate transaction;
+    Statistics statistics;
+    Long teamId;
+    Long memberId;
+
+    @BeforeEach
+    public void before() {
+        transaction = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        transaction.executeWithoutResult(status -> {
+            Team team = new Team(TEAM_NAME);
+            entityManager.persist(team);
+            Member member = new Member("cachedMember", 10, team);
+            entityManager.persist(member);
+            teamId = team.getId();
+            memberId = member.getId();
+        });
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void after() {
+        transaction.executeWithoutResult(status -> {
+            entityManager.createQuery("delete from Member m where m.id = :id")
+                    .setParameter("id", memberId)
+                    .executeUpdate();
+            entityManager.createQuery("delete from Team t where t.id = :id")
+                    .setParameter("id", teamId)
+                    .executeUpdate();
+        });
+    }
+
+    @Test
+    @DisplayName("member.getTeam() 지연 로딩은 2차 캐시에서 팀을 가져옴")
+    public void teamSecondLevelCacheTest() {
+        transaction.executeWithoutResult(status ->
+                entityManager.find(Member.class, memberId).getTeam().getName()); //캐시에 없으면 조회 후 저장
+
+        long statements = statistics.getPrepareStatementCount();
+        String name = transaction.execute(status ->
+                entityManager.find(Member.class, memberId).getTeam().getName());
+
+        assertThat(name).isEqualTo(TEAM_NAME);
+        assertThat(statistics.getPrepareStatementCount() - statements).isEqualTo(1); //member 조회만 실행
+        assertThat(statistics.getDomainDataRegionStatistics(Team.class.getName()).getHitCount()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("팀 이름 조회는 쿼리 캐시에서 결과를 가져옴")
+    public void findByNameQueryCacheTest() {
+        transaction.executeWithoutResult(status -> teamRepository.findByName(TEAM_NAME));
+
+        long statements = statistics.getPrepareStatementCount();
+        Long foundId = transaction.execute(status -> teamRepository.findByName(TEAM_NAME).get(0).getId());
+
+        assertThat(foundId).isEqualTo(teamId);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("팀과 소속 회원을 팀 수와 상관없이 쿼리 한 번으로 조회")
+    public void findTeamsWithMembersTest() {
+        transaction.executeWithoutResult(status -> {
+            List<String> names = persistTeams("graphTeam", 5, 3);
+
+            long statements = statistics.getPrepareStatementCount();
+            List<Team> teams = teamRepository.findTeamsWithMembers(names);
+            teams.forEach(team -> team.getMembers().forEach(Member::getUsername));
+
+            assertThat(teams).hasSize(5);
+            assertThat(teams).allSatisfy(team -> assertThat(team.getMembers()).hasSize(3));
+            assertThat(statistics.getPrepareStatementCount() - statements).isEqualTo(1);
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    @DisplayName("member.getTeam() 지연 로딩은 in 절로 묶어서 초기화(batch fetch)")
+    public void teamBatchFetchTest() {
+        transaction.executeWithoutResult(status -> {
+            List<String> names = persistTeams("batchTeam", 5, 2);
+            entityManagerFactory.getCache().evict(Team.class); //2차 캐시가 아니라 DB에서 초기화하도록 비움
+
+            long statements = statistics.getPrepareStatementCount();
+            List<Member> members = entityManager.createQuery(
+                            "select m from Member m where m.team.name in :names", Member.class)
+                    .setParameter("names", names)
+                    .getResultList();
+            members.forEach(member -> member.getTeam().getName());
+
+            assertThat(members).hasSize(10);
+            assertThat(statistics.getPrepareStatementCount() - statements).isEqualTo(2); //회원 조회 1 + 팀 5개 조회 1
+            status.setRollbackOnly();
+        });
+    }
+
+    //팀 teamCount개에 회원을 membersPerTeam명씩 넣고 영속성 컨텍스트를 비운 뒤 팀 이름 목록을 반환
+    private List<String> persistTeams(String prefix, int teamCount, int membersPerTeam) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < teamCount; i++) {
+            Team team = new Team(prefix + i);
+            entityManager.persist(team);
+            names.add(team.getName());
+            for (int j = 0; j < membersPerTeam; j++) {
+                entityManager.persist(new Member(prefix + i + "-member" + j, 20 + j, team));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return names;
+    }
+}
@@ -0,0 +1,73 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.TeamStatisticsDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 스케줄러가 reconcile을 주기적으로 실행해서 이벤트 없이 바뀐 값을 맞추는지 확인 (주기를 짧게 설정)
+ */
+@SpringBootTest(properties = "app.team-stats.reconcile-interval-ms=100")
+class TeamStatisticsReconcileTest {
+
+    @Autowired
+    TeamStatisticsStore teamStatisticsStore;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    Long teamId;
+    Long memberId;
+
+    @AfterEach
+    public void after() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            entityManager.remove(entityManager.find(Member.class, memberId));
+            entityManager.remove(entityManager.find(Team.class, teamId));
+        });
+    }
+
+    @Test
+    @DisplayName("이벤트 없이 DB에서 바뀐 값을 스케줄된 reconcile이 맞춤")
+    public void scheduledReconcileTest() throws InterruptedException {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            Team team = new Team("reconcileTeam");
+            entityManager.persist(team);
+            Member member = new Member("reconcileMember", 10, team);
+            entityManager.persist(member);
+            teamId = team.getId();
+            memberId = member.getId();
+        });
+
+        //다른 인스턴스나 SQL로 직접 바꾼 것처럼 하이버네이트 이벤트 없이 수정
+        transaction.executeWithoutResult(status -> entityManager.createNativeQuery("update member set age = 99 where member_id = ?")
+                .setParameter(1, memberId)
+                .executeUpdate());
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!Integer.valueOf(99).equals(maxAge()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(maxAge()).isEqualTo(99);
+    }
+
+    private Integer maxAge() {
+        return teamStatisticsStore.statistics().stream()
+                .filter(statistics -> statistics.getTeamId().equals(teamId))
+                .findFirst()
+                .map(TeamStatisticsDto::getMaxAge)
+                .orElse(null);
+    }
+}
@@ -0,0 +1,190 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.TeamStatisticsDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 커밋된 변경만 반영되므로 트랜잭션을 나눠서 확인하고, 넣은 데이터는 엔티티 삭제(이벤트)로 직접 지움
+ * 스케줄러가 중간에 stale 을 풀지 않도록 확인 주기를 길게 설정
+ */
+@SpringBootTest(properties = {
+        "app.team-stats.max-pending-changes=10",
+        "app.team-stats.stale-check-interval-ms=600000"
+})
+class TeamStatisticsStoreTest {
+
+    @Autowired
+    TeamStatisticsStore teamStatisticsStore;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate transaction;
+    Long teamId;
+    List<Long> memberIds = new ArrayList<>();
+
+    @BeforeEach
+    public void before() {
+        transaction = new TransactionTemplate(transactionManager);
+        teamStatisticsStore.reconcile(); //다른 테스트가 벌크 쿼리로 지운 데이터와 맞춤
+        transaction.executeWithoutResult(status -> {
+            Team team = new Team("statsTeam");
+            entityManager.persist(team);
+            for (int age = 10; age <= 30; age += 10) {
+                Member member = new Member("statsMember" + age, age, team);
+                entityManager.persist(member);
+                memberIds.add(member.getId());
+            }
+            teamId = team.getId();
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        transaction.executeWithoutResult(status -> {
+            //회원마다 find 하면 같은 조회가 반복되어 N+1(statement-budget FAIL)로 실패하므로 한 번에 조회
+            entityManager.createQuery("select m from Member m where m.id in :ids", Member.class)
+                    .setParameter("ids", memberIds)
+                    .getResultList()
+                    .forEach(entityManager::remove);
+            entityManager.remove(entityManager.find(Team.class, teamId));
+        });
+        assertThat(teamStatisticsStore.statistics()).extracting("teamId").doesNotContain(teamId);
+    }
+
+    @Test
+    @DisplayName("커밋된 회원 저장/수정/삭제를 group by 없이 증분으로 반영")
+    public void incrementalTest() {
+        assertStatistics(3, 20.0, 30, 10);
+
+        transaction.executeWithoutResult(status -> {
+            entityManager.find(Member.class, memberIds.get(2)).setAge(40);
+            entityManager.remove(entityManager.find(Member.class, memberIds.get(0)));
+        });
+        assertStatistics(2, 30.0, 40, 20);
+
+        transaction.executeWithoutResult(status -> {
+            entityManager.find(Team.class, teamId).setName("renamedStatsTeam");
+            entityManager.find(Member.class, memberIds.get(1)).setAge(50);
+            status.setRollbackOnly(); //롤백된 변경은 반영하지 않음
+        });
+        assertStatistics(2, 30.0, 40, 20);
+        assertThat(statistics().getTeamName()).isEqualTo("statsTeam");
+    }
+
+    @Test
+    @DisplayName("증분으로 유지한 값과 DB에서 다시 집계한 값이 같음")
+    public void reconcileTest() {
+        transaction.executeWithoutResult(status -> {
+            entityManager.find(Team.class, teamId).setName("renamedStatsTeam");
+            Member member = new Member("statsMember60", 60, entityManager.find(Team.class, teamId));
+            entityManager.persist(member);
+            memberIds.add(member.getId());
+        });
+        TeamStatisticsDto incremental = statistics();
+
+        teamStatisticsStore.reconcile();
+
+        TeamStatisticsDto reconciled = statistics();
+        assertThat(incremental).usingRecursiveComparison().isEqualTo(reconciled);
+        assertThat(reconciled.getTeamName()).isEqualTo("renamedStatsTeam");
+        assertThat(reconciled.getCount()).isEqualTo(4);
+        assertThat(reconciled.getMaxAge()).isEqualTo(60);
+    }
+
+    @Test
+    @DisplayName("이벤트가 없는 벌크 수정/삭제도 EntityChangeCollector.bulkChange로 반영")
+    public void bulkOperationTest() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("statsTeam");
+
+        memberJpaRepository.bulkUpdate(condition, update -> update.set(QMember.member.age, QMember.member.age.add(5)), 2, progress -> {
+        });
+        assertStatistics(3, 25.0, 35, 15);
+
+        condition.setAgeGoe(30);
+        memberJpaRepository.bulkDelete(condition, 2, progress -> {
+        });
+        assertStatistics(2, 20.0, 25, 15);
+    }
+
+    @Test
+    @DisplayName("max-pending-changes 를 넘는 트랜잭션은 커밋 후 stale 로 표시되고 그동안은 DB에서 집계")
+    public void overflowMarksStaleTest() {
+        transaction.executeWithoutResult(status -> {
+            Team team = entityManager.find(Team.class, teamId);
+            for (int i = 0; i < 11; i++) {
+                Member member = new Member("statsBulkMember" + i, 40, team);
+                entityManager.persist(member);
+                memberIds.add(member.getId());
+            }
+        });
+
+        assertThat(teamStatisticsStore.isStale()).isTrue();
+        assertStatistics(14, 250.0 / 7, 40, 10);
+
+        teamStatisticsStore.reconcile();
+
+        assertThat(teamStatisticsStore.isStale()).isFalse();
+        assertStatistics(14, 250.0 / 7, 40, 10);
+    }
+
+    @Test
+    @DisplayName("reconcile 중에 커밋된 변경도 빠지거나 두 번 반영되지 않음")
+    public void reconcileDuringCommitsTest() throws InterruptedException {
+        List<Long> committedIds = new ArrayList<>();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 20; i++) {
+                int index = i;
+                transaction.executeWithoutResult(status -> {
+                    Member member = new Member("statsConcurrentMember" + index, 40, entityManager.find(Team.class, teamId));
+                    entityManager.persist(member);
+                    committedIds.add(member.getId());
+                });
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            teamStatisticsStore.reconcile();
+        }
+        writer.join();
+        memberIds.addAll(committedIds);
+
+        assertStatistics(23, 860.0 / 23, 40, 10); //reconcile 없이 증분으로 유지한 값
+    }
+
+    private void assertStatistics(long count, Double avgAge, Integer maxAge, Integer minAge) {
+        TeamStatisticsDto statistics = statistics();
+        assertThat(statistics.getCount()).isEqualTo(count);
+        assertThat(statistics.getAvgAge()).isEqualTo(avgAge);
+        assertThat(statistics.getMaxAge()).isEqualTo(maxAge);
+        assertThat(statistics.getMinAge()).isEqualTo(minAge);
+    }
+
+    private TeamStatisticsDto statistics() {
+        return teamStatisticsStore.statistics().stream()
+                .filter(statistics -> statistics.getTeamId().equals(teamId))
+                .findFirst()
+                .orElseThrow();
+    }
+}
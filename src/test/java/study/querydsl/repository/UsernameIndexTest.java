@@ -0,0 +1,61 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UsernameIndexTest {
+
+    UsernameIndex index;
+
+    @BeforeEach
+    public void before() {
+        index = new UsernameIndex();
+        index.add(1L, "member1");
+        index.add(2L, "member2");
+        index.add(10L, "member10");
+        index.add(20L, "kim");
+        index.add(21L, "kim"); //같은 이름의 다른 회원
+    }
+
+    @Test
+    @DisplayName("접두사 검색")
+    public void prefixTest() {
+        assertThat(index.prefix("member1", 100)).containsExactlyInAnyOrder(1L, 10L);
+        assertThat(index.prefix("kim", 100)).containsExactlyInAnyOrder(20L, 21L);
+        assertThat(index.prefix("lee", 100)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("부분 문자열 검색 - 3글자 미만 검색어도 지원")
+    public void containsTest() {
+        assertThat(index.contains("ber1", 100)).containsExactlyInAnyOrder(1L, 10L);
+        assertThat(index.contains("mber", 100)).containsExactlyInAnyOrder(1L, 2L, 10L);
+        assertThat(index.contains("im", 100)).containsExactlyInAnyOrder(20L, 21L);
+        assertThat(index.contains("xyz", 100)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("일치하는 회원이 limit를 넘으면 null")
+    public void limitTest() {
+        assertThat(index.prefix("member", 2)).isNull();
+        assertThat(index.contains("mem", 2)).isNull();
+        assertThat(index.prefix("member", 3)).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("삭제와 이름 변경이 검색 결과에 반영")
+    public void removeTest() {
+        index.remove(1L, "member1");
+        index.remove(2L, "member2");
+        index.add(2L, "renamed2");
+        index.remove(20L, "kim");
+
+        assertThat(index.contains("mber", 100)).containsExactly(10L);
+        assertThat(index.contains("named", 100)).containsExactly(2L);
+        assertThat(index.prefix("kim", 100)).containsExactly(21L);
+        assertThat(index.size()).isEqualTo(3);
+    }
+}